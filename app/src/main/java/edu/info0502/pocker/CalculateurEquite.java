@@ -0,0 +1,328 @@
+package edu.info0502.pocker;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Calcul d'équité gamme contre gamme sur un tableau donné.
+// Les tableaux sont énumérés (ou tirés au hasard s'il y en a trop) et, pour chaque tableau,
+// chaque combinaison des deux gammes n'est évaluée qu'une seule fois. Les confrontations sont
+// ensuite comptées par recherche dichotomique dans les scores triés de la seconde gamme.
+class CalculateurEquite {
+
+    private static final int TAILLE_CACHE_DEFAUT = 1024;
+    // au-delà de ce nombre de tableaux possibles on passe en Monte Carlo
+    private static final long LIMITE_ENUMERATION = 50_000;
+    // nombre de tirages Monte Carlo : inversement proportionnel au nombre de paires, entre ces bornes
+    private static final long CONFRONTATIONS_VISEES = 20_000_000;
+    private static final int TIRAGES_MIN = 2_000;
+    private static final int TIRAGES_MAX = 20_000;
+    private static final long PAQUET_COMPLET = (1L << 52) - 1;
+
+    private final Map<Cle, ResultatEquite> cache;
+
+    public CalculateurEquite() {
+        this(TAILLE_CACHE_DEFAUT);
+    }
+
+    public CalculateurEquite(int tailleCache) {
+        // LinkedHashMap en ordre d'accès : l'entrée la moins récemment utilisée est évincée
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Cle, ResultatEquite> plusAncienne) {
+                return size() > tailleCache;
+            }
+        };
+    }
+
+    public ResultatEquite calculer(String gamme1, String gamme2, long tableau) {
+        return calculer(Gamme.parser(gamme1), Gamme.parser(gamme2), tableau);
+    }
+
+    public ResultatEquite calculer(Gamme gamme1, Gamme gamme2, long tableau) {
+        int nombreCartes = Long.bitCount(tableau);
+        if (nombreCartes > 5 || nombreCartes == 1 || nombreCartes == 2) {
+            throw new IllegalArgumentException("Le tableau doit contenir 0, 3, 4 ou 5 cartes");
+        }
+
+        Cle cle = new Cle(gamme1, gamme2, tableau);
+        synchronized (cache) {
+            ResultatEquite resultat = cache.get(cle);
+            if (resultat != null) {
+                return resultat;
+            }
+        }
+
+        ResultatEquite resultat = new Calcul(
+                filtrer(gamme1.getCombinaisons(), tableau),
+                filtrer(gamme2.getCombinaisons(), tableau),
+                tableau).executer();
+
+        synchronized (cache) {
+            cache.put(cle, resultat);
+        }
+        return resultat;
+    }
+
+    // retirer les combinaisons bloquées par le tableau
+    private static long[] filtrer(long[] combinaisons, long tableau) {
+        long[] resultat = new long[combinaisons.length];
+        int n = 0;
+        for (long combinaison : combinaisons) {
+            if ((combinaison & tableau) == 0) {
+                resultat[n++] = combinaison;
+            }
+        }
+        if (n == 0) {
+            throw new IllegalArgumentException("Toutes les mains de la gamme sont bloquées par le tableau");
+        }
+        return Arrays.copyOf(resultat, n);
+    }
+
+    private static long nombreCombinaisons(int n, int k) {
+        long resultat = 1;
+        for (int i = 0; i < k; i++) {
+            resultat = resultat * (n - i) / (i + 1);
+        }
+        return resultat;
+    }
+
+    // un calcul pour un couple de gammes et un tableau
+    private static final class Calcul {
+
+        private final long[] combinaisons1;
+        private final long[] combinaisons2;
+        private final long tableau;
+        private final int[] scores1;
+        private final int[] scores2;
+        // scores de la gamme 2 triés, en tout et par carte (combinaisons de la gamme 2 contenant cette carte)
+        private final int[] tries2;
+        private final int[][] indicesParCarte = new int[52][];
+        private final int[][] triesParCarte = new int[52][];
+        private long gains1;
+        private long gains2;
+        private long egalites;
+
+        Calcul(long[] combinaisons1, long[] combinaisons2, long tableau) {
+            this.combinaisons1 = combinaisons1;
+            this.combinaisons2 = combinaisons2;
+            this.tableau = tableau;
+            this.scores1 = new int[combinaisons1.length];
+            this.scores2 = new int[combinaisons2.length];
+            this.tries2 = new int[combinaisons2.length];
+
+            int[] nombreParCarte = new int[52];
+            for (long main : combinaisons2) {
+                nombreParCarte[Long.numberOfTrailingZeros(main)]++;
+                nombreParCarte[63 - Long.numberOfLeadingZeros(main)]++;
+            }
+            for (int carte = 0; carte < 52; carte++) {
+                indicesParCarte[carte] = new int[nombreParCarte[carte]];
+                triesParCarte[carte] = new int[nombreParCarte[carte]];
+                nombreParCarte[carte] = 0;
+            }
+            for (int j = 0; j < combinaisons2.length; j++) {
+                int basse = Long.numberOfTrailingZeros(combinaisons2[j]);
+                int haute = 63 - Long.numberOfLeadingZeros(combinaisons2[j]);
+                indicesParCarte[basse][nombreParCarte[basse]++] = j;
+                indicesParCarte[haute][nombreParCarte[haute]++] = j;
+            }
+        }
+
+        ResultatEquite executer() {
+            int manquantes = 5 - Long.bitCount(tableau);
+            int[] restantes = cartesRestantes(tableau);
+
+            if (nombreCombinaisons(restantes.length, manquantes) <= LIMITE_ENUMERATION) {
+                enumerer(restantes, manquantes, 0, 0, 0L);
+            } else {
+                ThreadLocalRandom hasard = ThreadLocalRandom.current();
+                long paires = (long) combinaisons1.length * combinaisons2.length;
+                long tirages = Math.max(TIRAGES_MIN, Math.min(TIRAGES_MAX, CONFRONTATIONS_VISEES / paires));
+                for (int t = 0; t < tirages; t++) {
+                    long complement = 0L;
+                    // tirage partiel de Fisher-Yates
+                    for (int i = 0; i < manquantes; i++) {
+                        int j = i + hasard.nextInt(restantes.length - i);
+                        int carte = restantes[j];
+                        restantes[j] = restantes[i];
+                        restantes[i] = carte;
+                        complement |= 1L << carte;
+                    }
+                    confronter(tableau | complement);
+                }
+            }
+
+            long total = gains1 + gains2 + egalites;
+            if (total == 0) {
+                throw new IllegalArgumentException("Aucune confrontation possible entre les deux gammes");
+            }
+            return new ResultatEquite(
+                    (gains1 + egalites / 2.0) / total,
+                    (gains2 + egalites / 2.0) / total,
+                    (double) egalites / total,
+                    total);
+        }
+
+        private void enumerer(int[] restantes, int manquantes, int debut, int choisies, long complement) {
+            if (choisies == manquantes) {
+                confronter(tableau | complement);
+                return;
+            }
+            for (int i = debut; i <= restantes.length - (manquantes - choisies); i++) {
+                enumerer(restantes, manquantes, i + 1, choisies + 1, complement | (1L << restantes[i]));
+            }
+        }
+
+        // évaluer chaque combinaison une fois pour ce tableau, puis compter les confrontations sans les
+        // parcourir toutes : pour chaque main de la gamme 1, les mains de la gamme 2 battues ou à égalité
+        // se comptent dans les scores triés, moins celles qui partagent une de ses deux cartes
+        private void confronter(long tableauComplet) {
+            evaluerGamme(combinaisons1, scores1, tableauComplet);
+            evaluerGamme(combinaisons2, scores2, tableauComplet);
+
+            System.arraycopy(scores2, 0, tries2, 0, scores2.length);
+            Arrays.sort(tries2);
+            for (int carte = 0; carte < 52; carte++) {
+                int[] indices = indicesParCarte[carte];
+                int[] tries = triesParCarte[carte];
+                for (int k = 0; k < indices.length; k++) {
+                    tries[k] = scores2[indices[k]];
+                }
+                Arrays.sort(tries);
+            }
+
+            for (int i = 0; i < combinaisons1.length; i++) {
+                int score1 = scores1[i];
+                if (score1 < 0) continue;
+                long main1 = combinaisons1[i];
+                int[] triesBasse = triesParCarte[Long.numberOfTrailingZeros(main1)];
+                int[] triesHaute = triesParCarte[63 - Long.numberOfLeadingZeros(main1)];
+
+                // les scores -1 (mains bloquées par le tableau) sont en tête et ne comptent pas
+                long compatibles = valides(tries2) - valides(triesBasse) - valides(triesHaute);
+                long battues = inferieurs(tries2, score1) - inferieurs(triesBasse, score1) - inferieurs(triesHaute, score1);
+                long egales = egaux(tries2, score1) - egaux(triesBasse, score1) - egaux(triesHaute, score1);
+
+                // la même main dans la gamme 2 partage les deux cartes : retirée deux fois ci-dessus
+                int identique = Arrays.binarySearch(combinaisons2, main1);
+                if (identique >= 0) {
+                    int score2 = scores2[identique];
+                    compatibles++;
+                    if (score2 < score1) battues++;
+                    else if (score2 == score1) egales++;
+                }
+
+                gains1 += battues;
+                egalites += egales;
+                gains2 += compatibles - battues - egales;
+            }
+        }
+
+        private static long valides(int[] tries) {
+            return tries.length - borneInferieure(tries, 0);
+        }
+
+        private static long inferieurs(int[] tries, int score) {
+            return borneInferieure(tries, score) - borneInferieure(tries, 0);
+        }
+
+        private static long egaux(int[] tries, int score) {
+            return borneInferieure(tries, score + 1) - borneInferieure(tries, score);
+        }
+
+        // premier indice dont la valeur est >= valeur
+        private static int borneInferieure(int[] tries, int valeur) {
+            int bas = 0;
+            int haut = tries.length;
+            while (bas < haut) {
+                int milieu = (bas + haut) >>> 1;
+                if (tries[milieu] < valeur) bas = milieu + 1;
+                else haut = milieu;
+            }
+            return bas;
+        }
+
+        private static void evaluerGamme(long[] combinaisons, int[] scores, long tableauComplet) {
+            for (int i = 0; i < combinaisons.length; i++) {
+                long main = combinaisons[i];
+                scores[i] = (main & tableauComplet) != 0 ? -1 : Evaluateur.evaluer(main | tableauComplet);
+            }
+        }
+
+        private static int[] cartesRestantes(long tableau) {
+            long restantes = PAQUET_COMPLET & ~tableau;
+            int[] cartes = new int[Long.bitCount(restantes)];
+            for (int i = 0; restantes != 0; i++) {
+                cartes[i] = Long.numberOfTrailingZeros(restantes);
+                restantes &= restantes - 1;
+            }
+            return cartes;
+        }
+    }
+
+    private static final class Cle {
+
+        private final Gamme gamme1;
+        private final Gamme gamme2;
+        private final long tableau;
+
+        Cle(Gamme gamme1, Gamme gamme2, long tableau) {
+            this.gamme1 = gamme1;
+            this.gamme2 = gamme2;
+            this.tableau = tableau;
+        }
+
+        @Override
+        public boolean equals(Object autre) {
+            if (!(autre instanceof Cle)) {
+                return false;
+            }
+            Cle cle = (Cle) autre;
+            return tableau == cle.tableau && gamme1.equals(cle.gamme1) && gamme2.equals(cle.gamme2);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(gamme1, gamme2, tableau);
+        }
+    }
+}
+
+class ResultatEquite {
+
+    private final double equite1;
+    private final double equite2;
+    private final double egalite;
+    private final long confrontations;
+
+    public ResultatEquite(double equite1, double equite2, double egalite, long confrontations) {
+        this.equite1 = equite1;
+        this.equite2 = equite2;
+        this.egalite = egalite;
+        this.confrontations = confrontations;
+    }
+
+    public double getEquite1() {
+        return equite1;
+    }
+
+    public double getEquite2() {
+        return equite2;
+    }
+
+    public double getEgalite() {
+        return egalite;
+    }
+
+    public long getConfrontations() {
+        return confrontations;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%.2f%% contre %.2f%% (égalité %.2f%%)", equite1 * 100, equite2 * 100, egalite * 100);
+    }
+}
@@ -49,6 +49,24 @@ class Carte implements Comparable<Carte>, Serializable{
         return valeur;
     }
 
+    // position de la carte dans un masque de 52 bits (couleur * 13 + rang)
+    public int getIndex() {
+        return couleur.ordinal() * 13 + valeur.ordinal();
+    }
+
+    public static Carte depuisIndex(int index) {
+        return new Carte(Couleur.values()[index / 13], Valeur.values()[index % 13]);
+    }
+
+    // construire le masque de bits d'un ensemble de cartes
+    public static long masque(List<Carte> cartes) {
+        long masque = 0L;
+        for (Carte carte : cartes) {
+            masque |= 1L << carte.getIndex();
+        }
+        return masque;
+    }
+
     @Override
     public String toString() {
         return valeur + " de " + couleur;
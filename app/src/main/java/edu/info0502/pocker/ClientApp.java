@@ -3,78 +3,89 @@ package edu.info0502.pocker;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.io.PrintWriter;
-import java.net.Socket;
 
+// Client interactif en ligne de commande, construit sur ClientPoker.
+// Usage : ClientApp [adresse] [port]
 public class ClientApp {
 
     private static final String SERVER_ADDRESS = "10.11.18.72";
     private static final int SERVER_PORT = 8888;
-    private PrintWriter out;
-    private BufferedReader in;
-    private Socket socket;
+    private final String hote;
+    private final int port;
+    private ClientPoker client;
+    // le serveur a refusé le username : la prochaine saisie est un nouveau username
+    private volatile boolean usernameRefuse = false;
 
-    public void connectToServer() {
-        try {
-            socket = new Socket(SERVER_ADDRESS, SERVER_PORT);
-            out = new PrintWriter(socket.getOutputStream(), true);
-            in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+    public ClientApp(String hote, int port) {
+        this.hote = hote;
+        this.port = port;
+    }
 
-            // un thread pour recevoir les messages du serveur
-            new Thread(this::receiveMessages).start();
+    public void connectToServer() {
+        try (ReacteurClients reacteur = new ReacteurClients();
+                BufferedReader userInput = new BufferedReader(new InputStreamReader(System.in))) {
+            System.out.println("Entrez votre username:");
+            String username = userInput.readLine();
+            if (username == null) {
+                return;
+            }
+            client = nouveauClient(reacteur, username);
 
             // envoyer les commande d'utilisateur
-            handleUserInput();
-
+            handleUserInput(reacteur, userInput);
         } catch (IOException e) {
             System.out.println("Erreur de connexion au serveur");
             e.printStackTrace();
         }
     }
 
-    private void receiveMessages() {
-        try {
-            String message;
-            while ((message = in.readLine()) != null) {
+    private ClientPoker nouveauClient(ReacteurClients reacteur, String username) {
+        ClientPoker nouveau = new ClientPoker(reacteur, hote, port, username, new EcouteurPoker() {
+            @Override
+            public void surConnexion(ClientPoker client) {
+                System.out.println("Bienvenue " + client.getUsername());
+            }
+
+            @Override
+            public void surUsernameRefuse(ClientPoker client) {
+                usernameRefuse = true;
+                System.out.println("Ce username est déjà pris. Entrez un autre username:");
+            }
+
+            @Override
+            public void surMessage(ClientPoker client, String message) {
                 System.out.println(message);
             }
-        } catch (IOException e) {
-            System.out.println("Déconnecté du serveur");
-        }
-    }
 
-    private void handleUserInput() {
-        try (BufferedReader userInput = new BufferedReader(new InputStreamReader(System.in))) {
-            String input;
-            while ((input = userInput.readLine()) != null) {
-                System.out.println("Votre commande: " + input);
-                out.println(input);
-                if (input.equalsIgnoreCase("QUIT")) {
-                    break;
-                }
+            @Override
+            public void surDeconnexion(ClientPoker client, IOException cause) {
+                System.out.println("Déconnecté du serveur");
             }
-        } catch (IOException e) {
-            e.printStackTrace();
-        } finally {
-            disconnect();
-        }
+        });
+        nouveau.connecter();
+        return nouveau;
     }
 
-    private void disconnect() {
-        try {
-            if (socket != null && !socket.isClosed()) {
-                socket.close();
+    private void handleUserInput(ReacteurClients reacteur, BufferedReader userInput) throws IOException {
+        String input;
+        while ((input = userInput.readLine()) != null) {
+            if (usernameRefuse) {
+                usernameRefuse = false;
+                client = nouveauClient(reacteur, input);
+                continue;
             }
-        } catch (IOException e) {
-            e.printStackTrace();
+            System.out.println("Votre commande: " + input);
+            if (input.equalsIgnoreCase("QUIT")) {
+                client.quitter();
+                break;
+            }
+            client.envoyer(input);
         }
     }
 
     public static void main(String[] args) {
-        ClientApp client = new ClientApp();
-        client.connectToServer();
+        String hote = args.length > 0 ? args[0] : SERVER_ADDRESS;
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : SERVER_PORT;
+        new ClientApp(hote, port).connectToServer();
     }
-
-
-
 }
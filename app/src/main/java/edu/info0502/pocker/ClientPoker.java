@@ -0,0 +1,319 @@
+package edu.info0502.pocker;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Une session cliente non bloquante vers le ServerApp, pilotée par un ReacteurClients.
+// Les commandes peuvent être envoyées à la suite sans attendre de réponse ; celles envoyées
+// avant l'accueil du serveur (ou pendant une reconnexion) sont gardées et partent dès que possible.
+// Si la connexion est perdue sans que quitter() ou fermer() ait été appelé, la session
+// se reconnecte avec un délai exponentiel.
+class ClientPoker {
+
+    private static final long DELAI_RECONNEXION_INITIAL_MS = 250;
+    private static final long DELAI_RECONNEXION_MAX_MS = 30_000;
+    private static final int TAILLE_TAMPON = 8192;
+
+    private static final String INVITE_USERNAME = "Entrez votre username:";
+    private static final String BIENVENUE = "Bienvenue ";
+    private static final String USERNAME_PRIS = "Ce username est déjà pris";
+    private static final String CARTES_PRIVEES = "PRIVÉ: Vos cartes: ";
+    private static final String SYSTEME = "SYSTEM: ";
+    private static final String GAGNANT = "Le gagnant est: ";
+
+    private final ReacteurClients reacteur;
+    private final String hote;
+    private final int port;
+    private final String username;
+    private final EcouteurPoker ecouteur;
+
+    // état manipulé uniquement par le thread du réacteur
+    private SocketChannel canal;
+    private SelectionKey cle;
+    private final ByteBuffer lecture = ByteBuffer.allocate(TAILLE_TAMPON);
+    private final ByteArrayOutputStream ligne = new ByteArrayOutputStream();
+    private final ArrayDeque<ByteBuffer> aEcrire = new ArrayDeque<>();
+    private final ArrayDeque<String> enAttente = new ArrayDeque<>();
+    private boolean accueilli = false;
+    private boolean fermetureDemandee = false;
+    private int tentatives = 0;
+
+    public ClientPoker(ReacteurClients reacteur, String hote, int port, String username, EcouteurPoker ecouteur) {
+        this.reacteur = reacteur;
+        this.hote = hote;
+        this.port = port;
+        this.username = username;
+        this.ecouteur = ecouteur;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void connecter() {
+        reacteur.executer(this::ouvrir);
+    }
+
+    public void envoyer(String commande) {
+        reacteur.executer(() -> {
+            if (accueilli) {
+                ecrire(commande);
+            } else {
+                enAttente.add(commande);
+            }
+        });
+    }
+
+    // quitter la partie proprement : le serveur fermera la connexion
+    public void quitter() {
+        reacteur.executer(() -> {
+            fermetureDemandee = true;
+            if (accueilli) {
+                ecrire("QUIT");
+            } else {
+                fermerCanal();
+            }
+        });
+    }
+
+    public void fermer() {
+        reacteur.executer(() -> {
+            fermetureDemandee = true;
+            fermerCanal();
+        });
+    }
+
+    private void ouvrir() {
+        if (fermetureDemandee || canal != null) {
+            return;
+        }
+        try {
+            canal = SocketChannel.open();
+            canal.configureBlocking(false);
+            canal.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            // résolu à chaque tentative : une panne DNS au démarrage n'empêche pas les reconnexions
+            InetSocketAddress adresse = new InetSocketAddress(hote, port);
+            if (adresse.isUnresolved()) {
+                throw new UnknownHostException(hote);
+            }
+            boolean immediat = canal.connect(adresse);
+            cle = canal.register(reacteur.getSelecteur(), immediat ? SelectionKey.OP_READ : SelectionKey.OP_CONNECT, this);
+            if (immediat) {
+                connexionEtablie();
+            }
+        } catch (IOException e) {
+            if (canal == null) {
+                planifierReconnexion();
+            } else {
+                perdreConnexion(e);
+            }
+        }
+    }
+
+    // appelé par le réacteur quand le canal est prêt
+    void traiter(SelectionKey cleSelectionnee) {
+        try {
+            if (cleSelectionnee.isConnectable()) {
+                canal.finishConnect();
+                cle.interestOps(SelectionKey.OP_READ);
+                connexionEtablie();
+            }
+            if (cleSelectionnee.isValid() && cleSelectionnee.isReadable()) {
+                lire();
+            }
+            if (cleSelectionnee.isValid() && cleSelectionnee.isWritable()) {
+                vider();
+            }
+        } catch (IOException e) {
+            perdreConnexion(e);
+        }
+    }
+
+    // le username part tout de suite, sans attendre l'invite du serveur
+    private void connexionEtablie() {
+        ecrire(username);
+    }
+
+    private void lire() throws IOException {
+        int lus = canal.read(lecture);
+        if (lus < 0) {
+            perdreConnexion(null);
+            return;
+        }
+        lecture.flip();
+        while (lecture.hasRemaining()) {
+            byte octet = lecture.get();
+            if (octet == '\n') {
+                String texte = ligne.toString(StandardCharsets.UTF_8);
+                ligne.reset();
+                traiterLigne(texte.endsWith("\r") ? texte.substring(0, texte.length() - 1) : texte);
+                if (canal == null) {
+                    // la session a été fermée par un écouteur
+                    break;
+                }
+            } else {
+                ligne.write(octet);
+            }
+        }
+        lecture.clear();
+    }
+
+    private void traiterLigne(String texte) {
+        if (!accueilli) {
+            if (texte.startsWith(BIENVENUE)) {
+                accueilli = true;
+                tentatives = 0;
+                ecouteur.surConnexion(this);
+                while (!enAttente.isEmpty() && canal != null) {
+                    ecrire(enAttente.poll());
+                }
+            } else if (texte.startsWith(USERNAME_PRIS)) {
+                fermetureDemandee = true;
+                fermerCanal();
+                ecouteur.surUsernameRefuse(this);
+            } else if (!texte.equals(INVITE_USERNAME)) {
+                ecouteur.surMessage(this, texte);
+            }
+            return;
+        }
+
+        ecouteur.surMessage(this, texte);
+        if (texte.startsWith(CARTES_PRIVEES)) {
+            ecouteur.surCartesPrivees(this, parserCartes(texte.substring(CARTES_PRIVEES.length())));
+        } else if (texte.startsWith(SYSTEME)) {
+            traiterMessageSysteme(texte.substring(SYSTEME.length()));
+        }
+    }
+
+    private void traiterMessageSysteme(String message) {
+        for (String phase : new String[] {"Flop", "Turn", "River"}) {
+            if (message.startsWith(phase + ": ")) {
+                ecouteur.surTableau(this, phase, parserCartes(message.substring(phase.length() + 2)));
+                return;
+            }
+        }
+        if (message.startsWith(GAGNANT)) {
+            ecouteur.surGagnant(this, message.substring(GAGNANT.length()));
+            return;
+        }
+        // résultat d'un joueur : "<nom>: <COMBINAISON>"
+        int separateur = message.lastIndexOf(": ");
+        if (separateur > 0) {
+            String combinaison = message.substring(separateur + 2);
+            for (CombinaisonPoker valeur : CombinaisonPoker.values()) {
+                if (valeur.name().equals(combinaison)) {
+                    ecouteur.surResultat(this, message.substring(0, separateur), valeur);
+                    return;
+                }
+            }
+        }
+    }
+
+    // "[AS de COEUR, ROI de PIQUE]"
+    static List<Carte> parserCartes(String texte) {
+        List<Carte> cartes = new ArrayList<>();
+        String contenu = texte.trim();
+        if (contenu.startsWith("[") && contenu.endsWith("]")) {
+            contenu = contenu.substring(1, contenu.length() - 1);
+        }
+        for (String carte : contenu.split(", ")) {
+            int de = carte.indexOf(" de ");
+            if (de > 0) {
+                cartes.add(new Carte(Couleur.valueOf(carte.substring(de + 4)), Valeur.valueOf(carte.substring(0, de))));
+            }
+        }
+        return cartes;
+    }
+
+    private void ecrire(String commande) {
+        if (canal == null) {
+            enAttente.add(commande);
+            return;
+        }
+        aEcrire.add(ByteBuffer.wrap((commande + "\n").getBytes(StandardCharsets.UTF_8)));
+        try {
+            vider();
+        } catch (IOException e) {
+            perdreConnexion(e);
+        }
+    }
+
+    // écrire autant que le socket accepte, s'abonner à OP_WRITE pour le reste
+    private void vider() throws IOException {
+        while (!aEcrire.isEmpty()) {
+            ByteBuffer tampon = aEcrire.peek();
+            canal.write(tampon);
+            if (tampon.hasRemaining()) {
+                cle.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                return;
+            }
+            aEcrire.poll();
+        }
+        if (cle.isValid()) {
+            cle.interestOps(SelectionKey.OP_READ);
+        }
+    }
+
+    private void perdreConnexion(IOException cause) {
+        if (canal == null) {
+            return;
+        }
+        if (accueilli) {
+            remettreEnAttente();
+        }
+        fermerCanal();
+        ecouteur.surDeconnexion(this, cause);
+        planifierReconnexion();
+    }
+
+    // commandes pas encore entièrement écrites : renvoyées après la reconnexion, dans le même ordre
+    // (avant l'accueil, aEcrire ne contient que le username, renvoyé de toute façon)
+    private void remettreEnAttente() {
+        for (Iterator<ByteBuffer> tampons = aEcrire.descendingIterator(); tampons.hasNext();) {
+            byte[] octets = tampons.next().array();
+            enAttente.addFirst(new String(octets, 0, octets.length - 1, StandardCharsets.UTF_8));
+        }
+    }
+
+    private void planifierReconnexion() {
+        if (fermetureDemandee || !reacteur.estActif()) {
+            return;
+        }
+        // délai exponentiel avec un peu d'aléa pour ne pas reconnecter toutes les sessions en même temps
+        long delai = Math.min(DELAI_RECONNEXION_MAX_MS, DELAI_RECONNEXION_INITIAL_MS << Math.min(tentatives, 16));
+        delai += ThreadLocalRandom.current().nextLong(delai / 2 + 1);
+        tentatives++;
+        reacteur.planifier(delai, this::ouvrir);
+    }
+
+    private void fermerCanal() {
+        accueilli = false;
+        aEcrire.clear();
+        ligne.reset();
+        lecture.clear();
+        if (cle != null) {
+            cle.cancel();
+            cle = null;
+        }
+        if (canal != null) {
+            try {
+                canal.close();
+            } catch (IOException e) {
+                // déjà fermé
+            }
+            canal = null;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package edu.info0502.pocker;
+
+// Les commandes acceptées par le serveur, avec leur limite de débit par connexion
+// (rafale autorisée, puis commandes par seconde ; 0 = jamais limitée).
+enum Commande {
+    START("START", 2, 0.2),
+    QUIT("QUIT", 0, 0),
+    HELP("HELP", 3, 1),
+    STATS("STATS", 3, 1),
+    INCONNUE("", 3, 1);
+
+    // copie unique : values() alloue un nouveau tableau à chaque appel
+    private static final Commande[] CONNUES = {START, QUIT, HELP, STATS};
+
+    private final String nom;
+    private final double rafale;
+    private final double parSeconde;
+
+    Commande(String nom, double rafale, double parSeconde) {
+        this.nom = nom;
+        this.rafale = rafale;
+        this.parSeconde = parSeconde;
+    }
+
+    public boolean estLimitee() {
+        return parSeconde > 0;
+    }
+
+    public SeauJetons nouveauSeau() {
+        return new SeauJetons(rafale, parSeconde);
+    }
+
+    // reconnaître une commande sans allocation ni conversion de casse (espaces ignorés aux extrémités)
+    public static Commande analyser(CharSequence ligne) {
+        int debut = 0;
+        int fin = ligne.length();
+        while (debut < fin && ligne.charAt(debut) <= ' ') debut++;
+        while (fin > debut && ligne.charAt(fin - 1) <= ' ') fin--;
+
+        for (Commande commande : CONNUES) {
+            if (commande.correspond(ligne, debut, fin)) {
+                return commande;
+            }
+        }
+        return INCONNUE;
+    }
+
+    private boolean correspond(CharSequence ligne, int debut, int fin) {
+        if (fin - debut != nom.length()) {
+            return false;
+        }
+        for (int i = 0; i < nom.length(); i++) {
+            char c = ligne.charAt(debut + i);
+            // les noms sont en majuscules ASCII : 'a'..'z' se ramène à 'A'..'Z' en retirant 0x20
+            if (c >= 'a' && c <= 'z') {
+                c -= 0x20;
+            }
+            if (c != nom.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
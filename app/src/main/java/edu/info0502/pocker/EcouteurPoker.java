@@ -0,0 +1,37 @@
+package edu.info0502.pocker;
+
+import java.io.IOException;
+import java.util.List;
+
+// Événements d'une session ClientPoker. Les méthodes sont appelées sur le thread
+// du réacteur : elles ne doivent pas bloquer.
+interface EcouteurPoker {
+
+    // le serveur a accepté le username
+    default void surConnexion(ClientPoker client) {
+    }
+
+    default void surUsernameRefuse(ClientPoker client) {
+    }
+
+    default void surCartesPrivees(ClientPoker client, List<Carte> cartes) {
+    }
+
+    // phase : "Flop", "Turn" ou "River"
+    default void surTableau(ClientPoker client, String phase, List<Carte> cartesCommunes) {
+    }
+
+    default void surResultat(ClientPoker client, String joueur, CombinaisonPoker combinaison) {
+    }
+
+    default void surGagnant(ClientPoker client, String annonce) {
+    }
+
+    // toute ligne reçue du serveur en dehors de la connexion (y compris celles déjà typées ci-dessus)
+    default void surMessage(ClientPoker client, String message) {
+    }
+
+    // cause vaut null si le serveur a fermé la connexion proprement
+    default void surDeconnexion(ClientPoker client, IOException cause) {
+    }
+}
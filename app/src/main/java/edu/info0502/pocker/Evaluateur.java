@@ -0,0 +1,120 @@
+package edu.info0502.pocker;
+
+// Évaluation rapide d'une main de 5 à 7 cartes représentée par un masque de bits
+// (bit couleur * 13 + rang, voir Carte.getIndex). Le score renvoyé se compare
+// directement : plus il est grand, meilleure est la main.
+//
+// Les recherches de quinte et de rangs les plus hauts passent par TablesEvaluateur.
+//
+// Disposition du score : categorie << 26 | rang principal << 17 | rang secondaire << 13 | kickers
+// où les kickers sont un masque de 13 bits (les rangs restants qui départagent).
+final class Evaluateur {
+
+    private static final int DECALAGE_CATEGORIE = 26;
+    private static final int DECALAGE_PRINCIPAL = 17;
+    private static final int DECALAGE_SECONDAIRE = 13;
+    private static final int MASQUE_COULEUR = 0x1FFF;
+
+    private static final byte[] QUINTES = TablesEvaluateur.instance().quintes;
+    private static final byte[] PLUS_HAUT = TablesEvaluateur.instance().plusHaut;
+    private static final short[][] PLUS_HAUTS = TablesEvaluateur.instance().plusHauts;
+
+    private Evaluateur() {
+    }
+
+    public static int evaluer(long masque) {
+        int c0 = (int) (masque & MASQUE_COULEUR);
+        int c1 = (int) ((masque >>> 13) & MASQUE_COULEUR);
+        int c2 = (int) ((masque >>> 26) & MASQUE_COULEUR);
+        int c3 = (int) ((masque >>> 39) & MASQUE_COULEUR);
+        int rangs = c0 | c1 | c2 | c3;
+
+        int couleur = 0;
+        if (Integer.bitCount(c0) >= 5) couleur = c0;
+        else if (Integer.bitCount(c1) >= 5) couleur = c1;
+        else if (Integer.bitCount(c2) >= 5) couleur = c2;
+        else if (Integer.bitCount(c3) >= 5) couleur = c3;
+
+        if (couleur != 0) {
+            int hauteur = hauteurQuinte(couleur);
+            if (hauteur == Valeur.AS.ordinal()) {
+                return score(CombinaisonPoker.QUINTE_FLUSH_ROYALE, hauteur, 0, 0);
+            }
+            if (hauteur >= 0) {
+                return score(CombinaisonPoker.QUINTE_FLUSH, hauteur, 0, 0);
+            }
+        }
+
+        int carres = c0 & c1 & c2 & c3;
+        int auMoinsTrois = (c0 & c1 & c2) | (c0 & c1 & c3) | (c0 & c2 & c3) | (c1 & c2 & c3);
+        int auMoinsDeux = (c0 & c1) | (c0 & c2) | (c0 & c3) | (c1 & c2) | (c1 & c3) | (c2 & c3);
+        int brelans = auMoinsTrois & ~carres;
+        int paires = auMoinsDeux & ~auMoinsTrois;
+
+        if (carres != 0) {
+            int carre = plusHaut(carres);
+            return score(CombinaisonPoker.CARRE, carre, 0, garderPlusHauts(rangs & ~(1 << carre), 1));
+        }
+
+        if (brelans != 0) {
+            int brelan = plusHaut(brelans);
+            int reste = (brelans & ~(1 << brelan)) | paires;
+            if (reste != 0) {
+                return score(CombinaisonPoker.FULL, brelan, plusHaut(reste), 0);
+            }
+        }
+
+        if (couleur != 0) {
+            return score(CombinaisonPoker.COULEUR, 0, 0, garderPlusHauts(couleur, 5));
+        }
+
+        int hauteur = hauteurQuinte(rangs);
+        if (hauteur >= 0) {
+            return score(CombinaisonPoker.QUINTE, hauteur, 0, 0);
+        }
+
+        if (brelans != 0) {
+            int brelan = plusHaut(brelans);
+            return score(CombinaisonPoker.BRELAN, brelan, 0, garderPlusHauts(rangs & ~(1 << brelan), 2));
+        }
+
+        if (Integer.bitCount(paires) >= 2) {
+            int haute = plusHaut(paires);
+            int basse = plusHaut(paires & ~(1 << haute));
+            int kicker = garderPlusHauts(rangs & ~((1 << haute) | (1 << basse)), 1);
+            return score(CombinaisonPoker.DEUX_PAIRES, haute, basse, kicker);
+        }
+
+        if (paires != 0) {
+            int paire = plusHaut(paires);
+            return score(CombinaisonPoker.PAIRE, paire, 0, garderPlusHauts(rangs & ~(1 << paire), 3));
+        }
+
+        return score(CombinaisonPoker.CARTE_HAUTE, 0, 0, garderPlusHauts(rangs, 5));
+    }
+
+    public static CombinaisonPoker categorie(int score) {
+        return CombinaisonPoker.values()[(score >>> DECALAGE_CATEGORIE) - 1];
+    }
+
+    // rang de la carte haute de la meilleure quinte contenue dans le masque, -1 sinon
+    private static int hauteurQuinte(int rangs) {
+        return QUINTES[rangs];
+    }
+
+    // ne conserver que les n bits les plus hauts du masque (n = 1, 2, 3 ou 5)
+    private static int garderPlusHauts(int rangs, int n) {
+        return PLUS_HAUTS[n][rangs];
+    }
+
+    private static int plusHaut(int rangs) {
+        return PLUS_HAUT[rangs];
+    }
+
+    private static int score(CombinaisonPoker combinaison, int principal, int secondaire, int kickers) {
+        return combinaison.getValeur() << DECALAGE_CATEGORIE
+                | principal << DECALAGE_PRINCIPAL
+                | secondaire << DECALAGE_SECONDAIRE
+                | kickers;
+    }
+}
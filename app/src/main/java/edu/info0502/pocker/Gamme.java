@@ -0,0 +1,169 @@
+package edu.info0502.pocker;
+
+import java.util.Arrays;
+import java.util.TreeSet;
+
+// Une gamme de mains de départ, par exemple "QQ+, AKs, KQo, A2s-A5s, AhKh".
+// Chaque combinaison est stockée comme un masque de deux bits (voir Carte.getIndex).
+class Gamme {
+
+    private static final String RANGS = "23456789TJQKA";
+    // h = coeur, d = carreau, s = pique, c = trèfle (ordre des valeurs de Couleur)
+    private static final String COULEURS = "hdsc";
+
+    private final String texte;
+    private final long[] combinaisons;
+
+    private Gamme(String texte, long[] combinaisons) {
+        this.texte = texte;
+        this.combinaisons = combinaisons;
+    }
+
+    public static Gamme parser(String texte) {
+        TreeSet<Long> combinaisons = new TreeSet<>();
+        for (String element : texte.split("[,\\s]+")) {
+            if (!element.isEmpty()) {
+                ajouterElement(element, combinaisons);
+            }
+        }
+        if (combinaisons.isEmpty()) {
+            throw new IllegalArgumentException("La gamme est vide : " + texte);
+        }
+
+        long[] masques = new long[combinaisons.size()];
+        int i = 0;
+        for (long combinaison : combinaisons) {
+            masques[i++] = combinaison;
+        }
+        return new Gamme(texte.trim(), masques);
+    }
+
+    // combinaisons triées, sans doublon
+    public long[] getCombinaisons() {
+        return combinaisons;
+    }
+
+    public int taille() {
+        return combinaisons.length;
+    }
+
+    private static void ajouterElement(String element, TreeSet<Long> resultat) {
+        // main exacte : "AhKh"
+        if (element.length() == 4 && COULEURS.indexOf(element.charAt(1)) >= 0) {
+            int carte1 = index(element.charAt(0), element.charAt(1));
+            int carte2 = index(element.charAt(2), element.charAt(3));
+            if (carte1 == carte2) {
+                throw new IllegalArgumentException("Main invalide : " + element);
+            }
+            resultat.add((1L << carte1) | (1L << carte2));
+            return;
+        }
+
+        int tiret = element.indexOf('-');
+        if (tiret > 0) {
+            ajouterIntervalle(element, element.substring(0, tiret), element.substring(tiret + 1), resultat);
+            return;
+        }
+
+        boolean plus = element.endsWith("+");
+        String classe = plus ? element.substring(0, element.length() - 1) : element;
+        int haut = rang(classe, 0);
+        int bas = rang(classe, 1);
+        char type = type(classe);
+
+        if (haut == bas) {
+            int fin = plus ? RANGS.length() - 1 : haut;
+            for (int r = haut; r <= fin; r++) {
+                ajouterClasse(r, r, type, resultat);
+            }
+        } else {
+            if (bas > haut) {
+                int tmp = haut;
+                haut = bas;
+                bas = tmp;
+            }
+            // "A2s+" : le kicker monte jusqu'au rang juste sous la carte haute
+            int fin = plus ? haut - 1 : bas;
+            for (int r = bas; r <= fin; r++) {
+                ajouterClasse(haut, r, type, resultat);
+            }
+        }
+    }
+
+    // "QQ-88" ou "A2s-A5s"
+    private static void ajouterIntervalle(String element, String debut, String fin, TreeSet<Long> resultat) {
+        int haut1 = rang(debut, 0), bas1 = rang(debut, 1);
+        int haut2 = rang(fin, 0), bas2 = rang(fin, 1);
+        char type = type(debut);
+        if (type != type(fin)) {
+            throw new IllegalArgumentException("Intervalle invalide : " + element);
+        }
+
+        if (haut1 == bas1 && haut2 == bas2) {
+            for (int r = Math.min(haut1, haut2); r <= Math.max(haut1, haut2); r++) {
+                ajouterClasse(r, r, type, resultat);
+            }
+        } else if (haut1 == haut2 && haut1 != bas1 && haut2 != bas2) {
+            for (int r = Math.min(bas1, bas2); r <= Math.max(bas1, bas2); r++) {
+                ajouterClasse(haut1, r, type, resultat);
+            }
+        } else {
+            throw new IllegalArgumentException("Intervalle invalide : " + element);
+        }
+    }
+
+    // ajouter toutes les combinaisons d'une classe (paire, assortie 's', dépareillée 'o' ou les deux)
+    private static void ajouterClasse(int haut, int bas, char type, TreeSet<Long> resultat) {
+        for (int couleur1 = 0; couleur1 < 4; couleur1++) {
+            for (int couleur2 = 0; couleur2 < 4; couleur2++) {
+                if (haut == bas && couleur2 <= couleur1) continue;
+                if (type == 's' && couleur1 != couleur2) continue;
+                if (type == 'o' && couleur1 == couleur2) continue;
+                resultat.add((1L << (couleur1 * 13 + haut)) | (1L << (couleur2 * 13 + bas)));
+            }
+        }
+    }
+
+    private static int rang(String classe, int position) {
+        int rang = classe.length() > position ? RANGS.indexOf(Character.toUpperCase(classe.charAt(position))) : -1;
+        if (rang < 0) {
+            throw new IllegalArgumentException("Main invalide : " + classe);
+        }
+        return rang;
+    }
+
+    private static char type(String classe) {
+        if (classe.length() == 2) {
+            return ' ';
+        }
+        char type = Character.toLowerCase(classe.charAt(2));
+        if (classe.length() != 3 || (type != 's' && type != 'o') || classe.charAt(0) == classe.charAt(1)) {
+            throw new IllegalArgumentException("Main invalide : " + classe);
+        }
+        return type;
+    }
+
+    private static int index(char rang, char couleur) {
+        int r = RANGS.indexOf(Character.toUpperCase(rang));
+        int c = COULEURS.indexOf(couleur);
+        if (r < 0 || c < 0) {
+            throw new IllegalArgumentException("Carte invalide : " + rang + couleur);
+        }
+        return c * 13 + r;
+    }
+
+    @Override
+    public boolean equals(Object autre) {
+        return autre instanceof Gamme && Arrays.equals(combinaisons, ((Gamme) autre).combinaisons);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(combinaisons);
+    }
+
+    @Override
+    public String toString() {
+        return texte;
+    }
+}
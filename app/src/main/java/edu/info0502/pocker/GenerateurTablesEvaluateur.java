@@ -0,0 +1,65 @@
+package edu.info0502.pocker;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+
+// Génère, au moment du build, les tables de l'évaluateur (voir TablesEvaluateur)
+// dans un répertoire de ressources embarqué dans le jar.
+// Usage : GenerateurTablesEvaluateur <répertoire de ressources>
+public class GenerateurTablesEvaluateur {
+
+    public static void main(String[] args) throws IOException {
+        Path repertoire = Path.of(args.length > 0 ? args[0] : ".");
+        Path fichier = repertoire.resolve("edu/info0502/pocker").resolve(TablesEvaluateur.RESSOURCE);
+        Files.createDirectories(fichier.getParent());
+        Files.write(fichier, generer());
+        System.out.println("Tables de l'évaluateur écrites dans " + fichier);
+    }
+
+    // contenu complet de la ressource, somme de contrôle comprise
+    static byte[] generer() {
+        int taille = TablesEvaluateur.TAILLE;
+        ByteBuffer tampon = ByteBuffer.allocate(TablesEvaluateur.TAILLE_RESSOURCE);
+        tampon.putInt(TablesEvaluateur.MAGIE).putInt(TablesEvaluateur.VERSION).putInt(taille);
+
+        for (int rangs = 0; rangs < taille; rangs++) {
+            tampon.put((byte) hauteurQuinte(rangs));
+        }
+        for (int rangs = 0; rangs < taille; rangs++) {
+            tampon.put((byte) (31 - Integer.numberOfLeadingZeros(rangs)));
+        }
+        for (int n : TablesEvaluateur.NOMBRES_GARDES) {
+            for (int rangs = 0; rangs < taille; rangs++) {
+                tampon.putShort((short) garderPlusHauts(rangs, n));
+            }
+        }
+
+        CRC32 somme = new CRC32();
+        somme.update(tampon.array(), 0, tampon.position());
+        tampon.putInt((int) somme.getValue());
+        return tampon.array();
+    }
+
+    // rang de la carte haute de la meilleure quinte contenue dans le masque, -1 sinon
+    private static int hauteurQuinte(int rangs) {
+        for (int haut = Valeur.AS.ordinal(); haut >= Valeur.SIX.ordinal(); haut--) {
+            int quinte = 0x1F << (haut - 4);
+            if ((rangs & quinte) == quinte) {
+                return haut;
+            }
+        }
+        // A-2-3-4-5 : l'as joue en bas de la quinte
+        return (rangs & 0x100F) == 0x100F ? Valeur.CINQ.ordinal() : -1;
+    }
+
+    // ne conserver que les n bits les plus hauts du masque
+    private static int garderPlusHauts(int rangs, int n) {
+        while (Integer.bitCount(rangs) > n) {
+            rangs &= rangs - 1;
+        }
+        return rangs;
+    }
+}
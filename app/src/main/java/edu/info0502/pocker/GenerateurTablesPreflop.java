@@ -0,0 +1,100 @@
+package edu.info0502.pocker;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+// Calcule par Monte Carlo l'équité préflop de chaque classe de main de départ
+// contre 1 à 9 adversaires aléatoires, en parallèle, et écrit le fichier lu par TablesPreflop.
+// Usage : GenerateurTablesPreflop <fichier> [tirages par case]
+public class GenerateurTablesPreflop {
+
+    private static final int TIRAGES_DEFAUT = 50_000;
+    private static final long GRAINE = 0x5EED_0502L;
+
+    public static void main(String[] args) throws IOException {
+        Path fichier = Path.of(args.length > 0 ? args[0] : "preflop.bin");
+        int tirages = args.length > 1 ? Integer.parseInt(args[1]) : TIRAGES_DEFAUT;
+        int colonnes = TablesPreflop.JOUEURS_MAX - TablesPreflop.JOUEURS_MIN + 1;
+
+        long debut = System.currentTimeMillis();
+        float[][] equites = new float[TablesPreflop.NOMBRE_CLASSES][colonnes];
+
+        // une tâche par case (classe, nombre de joueurs) pour bien répartir le travail
+        IntStream.range(0, TablesPreflop.NOMBRE_CLASSES * colonnes).parallel().forEach(caseTable -> {
+            int classe = caseTable / colonnes;
+            int nombreJoueurs = TablesPreflop.JOUEURS_MIN + caseTable % colonnes;
+            SplittableRandom hasard = new SplittableRandom(GRAINE + caseTable);
+            equites[classe][nombreJoueurs - TablesPreflop.JOUEURS_MIN] =
+                    (float) simuler(classe, nombreJoueurs, tirages, hasard);
+        });
+
+        TablesPreflop.ecrire(fichier, equites);
+        System.out.println("Tables préflop écrites dans " + fichier + " en "
+                + (System.currentTimeMillis() - debut) + " ms");
+        afficherExtremes(equites);
+    }
+
+    // contrôle rapide : meilleure et pire main de départ à deux joueurs
+    private static void afficherExtremes(float[][] equites) {
+        int meilleure = 0;
+        int pire = 0;
+        for (int classe = 1; classe < TablesPreflop.NOMBRE_CLASSES; classe++) {
+            if (equites[classe][0] > equites[meilleure][0]) meilleure = classe;
+            if (equites[classe][0] < equites[pire][0]) pire = classe;
+        }
+        System.out.printf("À deux joueurs : %s %.1f%%, %s %.1f%%%n",
+                TablesPreflop.nomClasse(meilleure), equites[meilleure][0] * 100,
+                TablesPreflop.nomClasse(pire), equites[pire][0] * 100);
+    }
+
+    static double simuler(int classe, int nombreJoueurs, int tirages, SplittableRandom hasard) {
+        long main = mainRepresentative(classe);
+        int[] paquet = new int[52 - 2];
+        int n = 0;
+        for (int carte = 0; carte < 52; carte++) {
+            if ((main & (1L << carte)) == 0) {
+                paquet[n++] = carte;
+            }
+        }
+
+        int aTirer = 5 + 2 * (nombreJoueurs - 1);
+        double total = 0;
+        for (int t = 0; t < tirages; t++) {
+            // tirage partiel de Fisher-Yates : tableau puis mains adverses
+            for (int i = 0; i < aTirer; i++) {
+                int j = i + hasard.nextInt(paquet.length - i);
+                int carte = paquet[j];
+                paquet[j] = paquet[i];
+                paquet[i] = carte;
+            }
+            long tableau = (1L << paquet[0]) | (1L << paquet[1]) | (1L << paquet[2])
+                    | (1L << paquet[3]) | (1L << paquet[4]);
+
+            int score = Evaluateur.evaluer(main | tableau);
+            int exAequo = 1;
+            boolean battu = false;
+            for (int adversaire = 0; adversaire < nombreJoueurs - 1 && !battu; adversaire++) {
+                long mainAdverse = (1L << paquet[5 + 2 * adversaire]) | (1L << paquet[6 + 2 * adversaire]);
+                int scoreAdverse = Evaluateur.evaluer(mainAdverse | tableau);
+                if (scoreAdverse > score) battu = true;
+                else if (scoreAdverse == score) exAequo++;
+            }
+            if (!battu) {
+                total += 1.0 / exAequo;
+            }
+        }
+        return total / tirages;
+    }
+
+    // une main concrète de la classe : coeur/carreau pour les paires et dépareillées, coeur/coeur pour les assorties
+    private static long mainRepresentative(int classe) {
+        int ligne = classe / 13;
+        int colonne = classe % 13;
+        if (ligne > colonne) {
+            return (1L << ligne) | (1L << colonne);
+        }
+        return (1L << ligne) | (1L << (13 + colonne));
+    }
+}
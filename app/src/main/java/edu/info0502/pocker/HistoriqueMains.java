@@ -0,0 +1,181 @@
+package edu.info0502.pocker;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+// Historique binaire des mains jouées, en ajout seul, découpé en segments.
+//
+// Chaque segment est un couple de fichiers nommés d'après l'id de sa première main :
+//   mains-<premier id>.hist : en-tête (magie, version) puis enregistrements [longueur][MainJouee]
+//   mains-<premier id>.idx  : un long par main, la position de son enregistrement dans .hist
+// Les ids se suivent, donc la main n se trouve à l'entrée (n - premier id) de l'index de son segment.
+class HistoriqueMains implements AutoCloseable {
+
+    static final int MAGIE = 0x48495354; // "HIST"
+    static final int VERSION = 1;
+    static final int TAILLE_ENTETE = 2 * Integer.BYTES;
+    private static final long TAILLE_MAX_SEGMENT = 64L * 1024 * 1024;
+    private static final String PREFIXE = "mains-";
+    static final String EXTENSION_DONNEES = ".hist";
+    static final String EXTENSION_INDEX = ".idx";
+
+    private final Path repertoire;
+    private FileChannel donnees;
+    private FileChannel index;
+    private long prochainId = 1;
+
+    public HistoriqueMains(Path repertoire) throws IOException {
+        this.repertoire = repertoire;
+        Files.createDirectories(repertoire);
+        TreeMap<Long, Path> segments = listerSegments(repertoire);
+        if (segments.isEmpty()) {
+            ouvrirSegment(prochainId);
+        } else {
+            reprendreDernierSegment(segments.lastKey());
+        }
+    }
+
+    // ajoute la main à l'historique et renvoie son id
+    public synchronized long enregistrer(PokerHoldem partie) throws IOException {
+        if (donnees.size() > TAILLE_MAX_SEGMENT) {
+            fermerSegment();
+            ouvrirSegment(prochainId);
+        }
+
+        MainJouee main = MainJouee.depuis(partie, prochainId);
+        ByteBuffer tampon = ByteBuffer.allocate(Integer.BYTES + main.taille());
+        tampon.putInt(main.taille());
+        main.ecrire(tampon);
+        tampon.flip();
+
+        long position = donnees.size();
+        ecrireTout(donnees, tampon, position);
+        // l'entrée d'index n'est écrite qu'une fois l'enregistrement complet
+        ecrireTout(index, ByteBuffer.allocate(Long.BYTES).putLong(0, position), index.size());
+        return prochainId++;
+    }
+
+    // accès direct à une main par son id, null si elle n'existe pas ;
+    // lecture seule, sans ouvrir l'historique en écriture (utilisable pendant que le serveur écrit)
+    static MainJouee lire(Path repertoire, long id) throws IOException {
+        Map.Entry<Long, Path> segment = listerSegments(repertoire).floorEntry(id);
+        return segment != null ? lireDansSegment(segment.getValue(), id - segment.getKey()) : null;
+    }
+
+    static MainJouee lireDansSegment(Path fichierDonnees, long rang) throws IOException {
+        try (FileChannel idx = FileChannel.open(fichierIndex(fichierDonnees), StandardOpenOption.READ);
+                FileChannel hist = FileChannel.open(fichierDonnees, StandardOpenOption.READ)) {
+            if ((rang + 1) * Long.BYTES > idx.size()) {
+                return null;
+            }
+            ByteBuffer position = ByteBuffer.allocate(Long.BYTES);
+            lireTout(idx, position, rang * Long.BYTES);
+            ByteBuffer longueur = ByteBuffer.allocate(Integer.BYTES);
+            lireTout(hist, longueur, position.getLong(0));
+            ByteBuffer enregistrement = ByteBuffer.allocate(longueur.getInt(0));
+            lireTout(hist, enregistrement, position.getLong(0) + Integer.BYTES);
+            enregistrement.flip();
+            return MainJouee.lire(enregistrement);
+        }
+    }
+
+    // fichiers de données de tous les segments, par premier id croissant
+    static TreeMap<Long, Path> listerSegments(Path repertoire) throws IOException {
+        TreeMap<Long, Path> resultat = new TreeMap<>();
+        try (Stream<Path> fichiers = Files.list(repertoire)) {
+            fichiers.forEach(fichier -> {
+                String nom = fichier.getFileName().toString();
+                if (nom.startsWith(PREFIXE) && nom.endsWith(EXTENSION_DONNEES)) {
+                    String id = nom.substring(PREFIXE.length(), nom.length() - EXTENSION_DONNEES.length());
+                    resultat.put(Long.parseLong(id), fichier);
+                }
+            });
+        }
+        return resultat;
+    }
+
+    static Path fichierIndex(Path fichierDonnees) {
+        String nom = fichierDonnees.getFileName().toString();
+        return fichierDonnees.resolveSibling(
+                nom.substring(0, nom.length() - EXTENSION_DONNEES.length()) + EXTENSION_INDEX);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        fermerSegment();
+    }
+
+    private void ouvrirSegment(long premierId) throws IOException {
+        Path fichier = repertoire.resolve(String.format("%s%016d%s", PREFIXE, premierId, EXTENSION_DONNEES));
+        donnees = FileChannel.open(fichier, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        index = FileChannel.open(fichierIndex(fichier), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        if (donnees.size() == 0) {
+            ByteBuffer entete = ByteBuffer.allocate(TAILLE_ENTETE).putInt(MAGIE).putInt(VERSION);
+            entete.flip();
+            ecrireTout(donnees, entete, 0);
+        }
+    }
+
+    // après un arrêt brutal : on ne garde que les mains indexées et complètes
+    private void reprendreDernierSegment(long premierId) throws IOException {
+        ouvrirSegment(premierId);
+
+        long entrees = index.size() / Long.BYTES;
+        long finValide = TAILLE_ENTETE;
+        ByteBuffer position = ByteBuffer.allocate(Long.BYTES);
+        ByteBuffer longueur = ByteBuffer.allocate(Integer.BYTES);
+        long valides = 0;
+        for (; valides < entrees; valides++) {
+            position.clear();
+            lireTout(index, position, valides * Long.BYTES);
+            long debut = position.getLong(0);
+            if (debut + Integer.BYTES > donnees.size()) {
+                break;
+            }
+            longueur.clear();
+            lireTout(donnees, longueur, debut);
+            long fin = debut + Integer.BYTES + longueur.getInt(0);
+            if (fin > donnees.size()) {
+                break;
+            }
+            finValide = fin;
+        }
+        index.truncate(valides * Long.BYTES);
+        donnees.truncate(finValide);
+        prochainId = premierId + valides;
+    }
+
+    private void fermerSegment() throws IOException {
+        if (donnees != null) {
+            donnees.close();
+            index.close();
+            donnees = null;
+            index = null;
+        }
+    }
+
+    private static void ecrireTout(FileChannel canal, ByteBuffer tampon, long position) throws IOException {
+        while (tampon.hasRemaining()) {
+            position += canal.write(tampon, position);
+        }
+    }
+
+    private static void lireTout(FileChannel canal, ByteBuffer tampon, long position) throws IOException {
+        while (tampon.hasRemaining()) {
+            int lus = canal.read(tampon, position);
+            if (lus < 0) {
+                throw new IOException("Fin de fichier inattendue dans l'historique");
+            }
+            position += lus;
+        }
+    }
+}
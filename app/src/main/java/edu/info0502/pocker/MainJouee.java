@@ -0,0 +1,159 @@
+package edu.info0502.pocker;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+
+// Une main terminée telle qu'elle est écrite dans l'historique (voir HistoriqueMains).
+//
+// Enregistrement binaire : id, horodatage, nombre de joueurs, indice du gagnant (-1 si aucun),
+// 5 cartes communes (-1 si absente), puis pour chaque joueur : 2 cartes privées,
+// combinaison annoncée, longueur et octets UTF-8 du nom. Les cartes sont des Carte.getIndex().
+class MainJouee {
+
+    private final long id;
+    private final long horodatage;
+    private final String[] joueurs;
+    private final byte[][] cartesPrivees;
+    private final byte[] combinaisons;
+    private final byte[] tableau;
+    private final int gagnant;
+
+    MainJouee(long id, long horodatage, String[] joueurs, byte[][] cartesPrivees, byte[] combinaisons,
+            byte[] tableau, int gagnant) {
+        this.id = id;
+        this.horodatage = horodatage;
+        this.joueurs = joueurs;
+        this.cartesPrivees = cartesPrivees;
+        this.combinaisons = combinaisons;
+        this.tableau = tableau;
+        this.gagnant = gagnant;
+    }
+
+    // photographie d'une partie après calculerResultats et determinerGagnant
+    public static MainJouee depuis(PokerHoldem partie, long id) {
+        List<Joueur> liste = partie.getJoueurs();
+        String[] joueurs = new String[liste.size()];
+        byte[][] cartesPrivees = new byte[liste.size()][2];
+        byte[] combinaisons = new byte[liste.size()];
+        int gagnant = -1;
+        for (int i = 0; i < liste.size(); i++) {
+            Joueur joueur = liste.get(i);
+            joueurs[i] = joueur.getNom();
+            List<Carte> cartes = joueur.getCartesPrivees();
+            cartesPrivees[i][0] = (byte) cartes.get(0).getIndex();
+            cartesPrivees[i][1] = (byte) cartes.get(1).getIndex();
+            combinaisons[i] = (byte) joueur.getMeilleureMain().evaluerMain().ordinal();
+            if (joueur == partie.getGagnant()) {
+                gagnant = i;
+            }
+        }
+
+        byte[] tableau = {-1, -1, -1, -1, -1};
+        List<Carte> communes = partie.getCartesCommunes();
+        for (int i = 0; i < communes.size(); i++) {
+            tableau[i] = (byte) communes.get(i).getIndex();
+        }
+        return new MainJouee(id, System.currentTimeMillis(), joueurs, cartesPrivees, combinaisons, tableau, gagnant);
+    }
+
+    public int taille() {
+        int taille = Long.BYTES * 2 + 2 + tableau.length;
+        for (String joueur : joueurs) {
+            taille += 3 + Short.BYTES + joueur.getBytes(StandardCharsets.UTF_8).length;
+        }
+        return taille;
+    }
+
+    public void ecrire(ByteBuffer tampon) {
+        tampon.putLong(id).putLong(horodatage);
+        tampon.put((byte) joueurs.length).put((byte) gagnant).put(tableau);
+        for (int i = 0; i < joueurs.length; i++) {
+            byte[] nom = joueurs[i].getBytes(StandardCharsets.UTF_8);
+            tampon.put(cartesPrivees[i]).put(combinaisons[i]);
+            tampon.putShort((short) nom.length).put(nom);
+        }
+    }
+
+    public static MainJouee lire(ByteBuffer tampon) {
+        long id = tampon.getLong();
+        long horodatage = tampon.getLong();
+        int nombre = tampon.get();
+        int gagnant = tampon.get();
+        byte[] tableau = new byte[5];
+        tampon.get(tableau);
+        String[] joueurs = new String[nombre];
+        byte[][] cartesPrivees = new byte[nombre][2];
+        byte[] combinaisons = new byte[nombre];
+        for (int i = 0; i < nombre; i++) {
+            tampon.get(cartesPrivees[i]);
+            combinaisons[i] = tampon.get();
+            byte[] nom = new byte[tampon.getShort() & 0xFFFF];
+            tampon.get(nom);
+            joueurs[i] = new String(nom, StandardCharsets.UTF_8);
+        }
+        return new MainJouee(id, horodatage, joueurs, cartesPrivees, combinaisons, tableau, gagnant);
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public long getHorodatage() {
+        return horodatage;
+    }
+
+    public int getNombreJoueurs() {
+        return joueurs.length;
+    }
+
+    public String getJoueur(int i) {
+        return joueurs[i];
+    }
+
+    public int getGagnant() {
+        return gagnant;
+    }
+
+    public CombinaisonPoker getCombinaison(int i) {
+        return CombinaisonPoker.values()[combinaisons[i]];
+    }
+
+    public long masqueCartesPrivees(int i) {
+        return (1L << cartesPrivees[i][0]) | (1L << cartesPrivees[i][1]);
+    }
+
+    public long masqueTableau() {
+        long masque = 0L;
+        for (byte carte : tableau) {
+            if (carte >= 0) {
+                masque |= 1L << carte;
+            }
+        }
+        return masque;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder texte = new StringBuilder();
+        texte.append("Main n°").append(id).append(" (").append(new Date(horodatage)).append(")\n");
+        texte.append("Tableau: ").append(cartes(tableau)).append('\n');
+        for (int i = 0; i < joueurs.length; i++) {
+            texte.append(i == gagnant ? "* " : "  ").append(joueurs[i]).append(": ")
+                    .append(cartes(cartesPrivees[i])).append(" -> ").append(getCombinaison(i)).append('\n');
+        }
+        return texte.toString();
+    }
+
+    private static String cartes(byte[] indices) {
+        StringBuilder texte = new StringBuilder("[");
+        for (byte indice : indices) {
+            if (indice >= 0) {
+                if (texte.length() > 1) texte.append(", ");
+                texte.append(Carte.depuisIndex(indice));
+            }
+        }
+        return texte.append(']').toString();
+    }
+}
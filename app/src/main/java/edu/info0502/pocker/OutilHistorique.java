@@ -0,0 +1,193 @@
+package edu.info0502.pocker;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Outil de consultation de l'historique des mains (voir HistoriqueMains).
+// Usage :
+//   OutilHistorique <répertoire> afficher <id>   affiche une main
+//   OutilHistorique <répertoire> analyser        rejoue toutes les mains avec l'Evaluateur et agrège
+//
+// L'analyse projette chaque segment en mémoire et le découpe en partitions traitées en parallèle.
+public class OutilHistorique {
+
+    private static final int MAINS_PAR_PARTITION = 65_536;
+
+    private static final String USAGE = "Usage: OutilHistorique <répertoire> afficher <id> | analyser";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println(USAGE);
+            return;
+        }
+        Path repertoire = Path.of(args[0]);
+        switch (args[1]) {
+            case "afficher":
+                if (args.length < 3) {
+                    System.out.println(USAGE);
+                    return;
+                }
+                long id;
+                try {
+                    id = Long.parseLong(args[2]);
+                } catch (NumberFormatException e) {
+                    System.out.println(USAGE);
+                    return;
+                }
+                MainJouee main = HistoriqueMains.lire(repertoire, id);
+                System.out.println(main != null ? main : "Main introuvable: " + id);
+                break;
+            case "analyser":
+                long debut = System.currentTimeMillis();
+                Agregats agregats = analyser(repertoire);
+                System.out.println(agregats);
+                System.out.println("Analyse terminée en " + (System.currentTimeMillis() - debut) + " ms");
+                break;
+            default:
+                System.out.println("Commande inconnue: " + args[1]);
+        }
+    }
+
+    static Agregats analyser(Path repertoire) throws IOException {
+        List<Partition> partitions = new ArrayList<>();
+        for (Path fichier : HistoriqueMains.listerSegments(repertoire).values()) {
+            decouper(fichier, partitions);
+        }
+        return partitions.parallelStream()
+                .map(Partition::analyser)
+                .reduce(new Agregats(), Agregats::fusionner);
+    }
+
+    // projeter un segment en mémoire et le découper en partitions d'entrées d'index
+    private static void decouper(Path fichier, List<Partition> partitions) throws IOException {
+        MappedByteBuffer donnees;
+        LongBuffer positions;
+        try (FileChannel hist = FileChannel.open(fichier, StandardOpenOption.READ);
+                FileChannel idx = FileChannel.open(HistoriqueMains.fichierIndex(fichier), StandardOpenOption.READ)) {
+            // l'index d'abord : toute main indexée est déjà complète dans les données
+            positions = idx.map(FileChannel.MapMode.READ_ONLY, 0, idx.size() / Long.BYTES * Long.BYTES)
+                    .asLongBuffer();
+            donnees = hist.map(FileChannel.MapMode.READ_ONLY, 0, hist.size());
+        }
+        if (donnees.getInt(0) != HistoriqueMains.MAGIE || donnees.getInt(4) != HistoriqueMains.VERSION) {
+            throw new IOException("Segment d'historique invalide: " + fichier);
+        }
+        for (int debut = 0; debut < positions.limit(); debut += MAINS_PAR_PARTITION) {
+            partitions.add(new Partition(donnees, positions, debut, Math.min(positions.limit(), debut + MAINS_PAR_PARTITION)));
+        }
+    }
+
+    private static final class Partition {
+
+        private final ByteBuffer donnees;
+        private final LongBuffer positions;
+        private final int debut;
+        private final int fin;
+
+        Partition(ByteBuffer donnees, LongBuffer positions, int debut, int fin) {
+            this.donnees = donnees;
+            this.positions = positions;
+            this.debut = debut;
+            this.fin = fin;
+        }
+
+        Agregats analyser() {
+            // vue propre à la partition : les positions des tampons ne sont pas partagées entre threads
+            ByteBuffer vue = donnees.duplicate();
+            Agregats agregats = new Agregats();
+            for (int i = debut; i < fin; i++) {
+                vue.position((int) positions.get(i) + Integer.BYTES);
+                agregats.ajouter(MainJouee.lire(vue));
+            }
+            return agregats;
+        }
+    }
+
+    static final class Agregats {
+
+        private long mains;
+        private long joueurs;
+        private final long[] victoiresParCombinaison = new long[CombinaisonPoker.values().length];
+        private final Map<String, Long> victoiresParJoueur = new HashMap<>();
+        // désaccords entre ce qui a été annoncé pendant la partie et le rejeu par l'Evaluateur
+        private long combinaisonsContestees;
+        private long gagnantsContestes;
+
+        void ajouter(MainJouee main) {
+            mains++;
+            joueurs += main.getNombreJoueurs();
+            int gagnant = main.getGagnant();
+            if (gagnant >= 0) {
+                victoiresParCombinaison[main.getCombinaison(gagnant).ordinal()]++;
+                victoiresParJoueur.merge(main.getJoueur(gagnant), 1L, Long::sum);
+            }
+
+            long tableau = main.masqueTableau();
+            if (Long.bitCount(tableau) != 5) {
+                return;
+            }
+            int meilleurScore = -1;
+            int scoreGagnant = -1;
+            for (int i = 0; i < main.getNombreJoueurs(); i++) {
+                int score = Evaluateur.evaluer(tableau | main.masqueCartesPrivees(i));
+                if (Evaluateur.categorie(score) != main.getCombinaison(i)) {
+                    combinaisonsContestees++;
+                }
+                meilleurScore = Math.max(meilleurScore, score);
+                if (i == gagnant) {
+                    scoreGagnant = score;
+                }
+            }
+            if (scoreGagnant != meilleurScore) {
+                gagnantsContestes++;
+            }
+        }
+
+        Agregats fusionner(Agregats autre) {
+            Agregats resultat = new Agregats();
+            for (Agregats agregats : new Agregats[] {this, autre}) {
+                resultat.mains += agregats.mains;
+                resultat.joueurs += agregats.joueurs;
+                resultat.combinaisonsContestees += agregats.combinaisonsContestees;
+                resultat.gagnantsContestes += agregats.gagnantsContestes;
+                for (int i = 0; i < victoiresParCombinaison.length; i++) {
+                    resultat.victoiresParCombinaison[i] += agregats.victoiresParCombinaison[i];
+                }
+                agregats.victoiresParJoueur.forEach((joueur, victoires) ->
+                        resultat.victoiresParJoueur.merge(joueur, victoires, Long::sum));
+            }
+            return resultat;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder texte = new StringBuilder();
+            texte.append("Mains: ").append(mains).append('\n');
+            texte.append("Joueurs par main: ")
+                    .append(mains == 0 ? 0 : String.format("%.2f", (double) joueurs / mains)).append('\n');
+            texte.append("Victoires par combinaison:\n");
+            for (CombinaisonPoker combinaison : CombinaisonPoker.values()) {
+                texte.append("  ").append(combinaison).append(": ")
+                        .append(victoiresParCombinaison[combinaison.ordinal()]).append('\n');
+            }
+            texte.append("Victoires par joueur:\n");
+            victoiresParJoueur.entrySet().stream()
+                    .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                    .limit(20)
+                    .forEach(entree -> texte.append("  ").append(entree.getKey()).append(": ")
+                            .append(entree.getValue()).append('\n'));
+            texte.append("Combinaisons contestées au rejeu: ").append(combinaisonsContestees).append('\n');
+            texte.append("Gagnants contestés au rejeu: ").append(gagnantsContestes);
+            return texte.toString();
+        }
+    }
+}
@@ -8,9 +8,14 @@ import java.util.Map;
 
 public class PokerHoldem {
 
+    // partagé entre les parties pour profiter du cache de résultats
+    private static final CalculateurEquite CALCULATEUR_EQUITE = new CalculateurEquite();
+
     private Talon talon;
     private List<Joueur> joueurs;
     private CartesCommunes cartesCommunes;
+    // gagnant de la dernière main, fixé par determinerGagnant
+    private Joueur gagnant;
 
     public PokerHoldem(List<String> nomsJoueurs) {
         if (nomsJoueurs.size() < 2 || nomsJoueurs.size() > 10) {
@@ -66,7 +71,7 @@ public class PokerHoldem {
     }
 
     public String determinerGagnant() {
-        Joueur gagnant = null;
+        gagnant = null;
         Main meilleurMain = null;
 
         for (Joueur joueur : joueurs) {
@@ -82,10 +87,27 @@ public class PokerHoldem {
         return gagnant != null ? gagnant.getNom() + " gagne avec " + meilleurMain.evaluerMain() : null;
     }
 
+    // équité d'une gamme contre une autre sur les cartes communes actuelles, ex. "QQ+, AKs" contre "KQo"
+    public ResultatEquite calculerEquite(String gamme1, String gamme2) {
+        return CALCULATEUR_EQUITE.calculer(gamme1, gamme2, Carte.masque(cartesCommunes.getCartes()));
+    }
+
     public List<Carte> getCartesCommunes() {
         return cartesCommunes.getCartes();
     }
 
+    public Joueur getGagnant() {
+        return gagnant;
+    }
+
+    public List<Joueur> getJoueurs() {
+        return Collections.unmodifiableList(joueurs);
+    }
+
+    public int getNombreJoueurs() {
+        return joueurs.size();
+    }
+
     public Joueur getJoueurParNom(String nom) {
         for (Joueur joueur : joueurs) {
             if (joueur.getNom().equals(nom)) {
@@ -0,0 +1,144 @@
+package edu.info0502.pocker;
+
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// Un seul thread et un sélecteur NIO pour faire tourner autant de ClientPoker que nécessaire.
+// Toutes les opérations sur les sessions passent par ce thread : les autres threads
+// soumettent des tâches, exécutées entre deux appels à select.
+class ReacteurClients implements AutoCloseable {
+
+    private final Selector selecteur;
+    private final Queue<Runnable> taches = new ConcurrentLinkedQueue<>();
+    // tâches différées (reconnexions), manipulées uniquement par le thread du réacteur
+    private final PriorityQueue<Minuterie> minuteries = new PriorityQueue<>();
+    private final Thread thread;
+    private volatile boolean actif = true;
+
+    public ReacteurClients() throws IOException {
+        selecteur = Selector.open();
+        thread = new Thread(this::boucle, "reacteur-clients");
+        thread.start();
+    }
+
+    // exécuter une tâche sur le thread du réacteur
+    public void executer(Runnable tache) {
+        if (Thread.currentThread() == thread) {
+            tache.run();
+            return;
+        }
+        taches.add(tache);
+        selecteur.wakeup();
+    }
+
+    public void planifier(long delaiMs, Runnable tache) {
+        executer(() -> minuteries.add(new Minuterie(System.currentTimeMillis() + delaiMs, tache)));
+    }
+
+    public boolean estActif() {
+        return actif;
+    }
+
+    Selector getSelecteur() {
+        return selecteur;
+    }
+
+    private void boucle() {
+        while (actif) {
+            try {
+                long attente = executerMinuteriesEchues();
+                selecteur.select(attente);
+                executerTaches();
+
+                Iterator<SelectionKey> cles = selecteur.selectedKeys().iterator();
+                while (cles.hasNext()) {
+                    SelectionKey cle = cles.next();
+                    cles.remove();
+                    if (cle.isValid()) {
+                        try {
+                            ((ClientPoker) cle.attachment()).traiter(cle);
+                        } catch (RuntimeException e) {
+                            System.err.println("Erreur dans une session: " + e);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("Erreur du réacteur: " + e.getMessage());
+            }
+        }
+
+        // les tâches soumises juste avant close() (un QUIT par exemple) passent avant la fermeture des canaux
+        executerTaches();
+        for (SelectionKey cle : selecteur.keys()) {
+            try {
+                cle.channel().close();
+            } catch (IOException e) {
+                // fermeture de toute façon
+            }
+        }
+        try {
+            selecteur.close();
+        } catch (IOException e) {
+            System.err.println("Erreur lors de la fermeture du sélecteur: " + e.getMessage());
+        }
+    }
+
+    private void executerTaches() {
+        Runnable tache;
+        while ((tache = taches.poll()) != null) {
+            executerSansErreur(tache);
+        }
+    }
+
+    // exécute les minuteries échues et renvoie l'attente maximale avant la suivante (0 = aucune)
+    private long executerMinuteriesEchues() {
+        long maintenant = System.currentTimeMillis();
+        while (!minuteries.isEmpty() && minuteries.peek().echeance <= maintenant) {
+            executerSansErreur(minuteries.poll().tache);
+        }
+        return minuteries.isEmpty() ? 0 : Math.max(1, minuteries.peek().echeance - maintenant);
+    }
+
+    private static void executerSansErreur(Runnable tache) {
+        try {
+            tache.run();
+        } catch (RuntimeException e) {
+            // une session défaillante ne doit pas arrêter les autres
+            System.err.println("Erreur dans une tâche du réacteur: " + e);
+        }
+    }
+
+    @Override
+    public void close() {
+        actif = false;
+        selecteur.wakeup();
+        if (Thread.currentThread() != thread) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static final class Minuterie implements Comparable<Minuterie> {
+
+        private final long echeance;
+        private final Runnable tache;
+
+        Minuterie(long echeance, Runnable tache) {
+            this.echeance = echeance;
+            this.tache = tache;
+        }
+
+        @Override
+        public int compareTo(Minuterie autre) {
+            return Long.compare(echeance, autre.echeance);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package edu.info0502.pocker;
+
+// Seau à jetons : autorise des rafales jusqu'à la capacité, puis un débit moyen fixe.
+class SeauJetons {
+
+    private final double capacite;
+    private final double jetonsParNano;
+    private double jetons;
+    private long dernierRemplissage;
+
+    public SeauJetons(double capacite, double jetonsParSeconde) {
+        this.capacite = capacite;
+        this.jetonsParNano = jetonsParSeconde / 1_000_000_000.0;
+        this.jetons = capacite;
+        this.dernierRemplissage = System.nanoTime();
+    }
+
+    // prendre un jeton s'il y en a un, sans jamais attendre
+    public synchronized boolean consommer() {
+        remplir();
+        if (jetons >= 1) {
+            jetons -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    // aucun jeton pris depuis le dernier remplissage complet : équivalent à un seau neuf
+    public synchronized boolean estPlein() {
+        remplir();
+        return jetons >= capacite;
+    }
+
+    private void remplir() {
+        long maintenant = System.nanoTime();
+        jetons = Math.min(capacite, jetons + (maintenant - dernierRemplissage) * jetonsParNano);
+        dernierRemplissage = maintenant;
+    }
+
+    // restituer un jeton pris pour une action finalement refusée
+    public synchronized void rendre() {
+        jetons = Math.min(capacite, jetons + 1);
+    }
+}
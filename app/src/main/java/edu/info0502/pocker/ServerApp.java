@@ -4,26 +4,81 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.PrintWriter;
+import java.net.InetAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
 
 public class ServerApp {
 
     private static final int PORT = 8888;
+    private static final String FICHIER_PREFLOP = System.getProperty("pocker.preflop", "preflop.bin");
+    private static final String REPERTOIRE_STATISTIQUES = System.getProperty("pocker.stats", "statistiques");
+    private static final String REPERTOIRE_HISTORIQUE = System.getProperty("pocker.historique", "historique");
+    private static final int MAX_CONNEXIONS = Integer.getInteger("pocker.maxConnexions", 256);
+    // une seule adresse ne doit pas pouvoir occuper toutes les connexions
+    private static final int MAX_CONNEXIONS_PAR_ADRESSE = Integer.getInteger("pocker.maxConnexionsParAdresse", 8);
+    // délai pour envoyer un username, sinon la connexion est fermée et sa place libérée
+    private static final int DELAI_USERNAME_MS = Integer.getInteger("pocker.delaiUsernameMs", 60_000);
+    // débit par connexion, toutes commandes confondues
+    private static final int RAFALE_CONNEXION = 20;
+    private static final int COMMANDES_PAR_SECONDE = 10;
     private final Map<String, ClientHandler> clients = new ConcurrentHashMap<>();
+    private final TablesPreflop tablesPreflop = TablesPreflop.chargerSiPresent(Path.of(FICHIER_PREFLOP));
+    private final Semaphore connexions = new Semaphore(MAX_CONNEXIONS);
+    // nouvelles connexions par seconde, au-delà elles sont refusées tout de suite
+    private final SeauJetons limiteAdmissions = new SeauJetons(50, 20);
+    // état par adresse distante, conservé d'une connexion à l'autre (voir libererAdresse)
+    private final Map<InetAddress, EtatAdresse> adresses = new HashMap<>();
+    private StatistiquesJoueurs statistiques;
+    private HistoriqueMains historique;
     private PokerHoldem currentGame;
     private boolean gameInProgress = false;
 
     public void start() {
-        try (ServerSocket serverSocket = new ServerSocket(PORT)) {
+        // tables de l'évaluateur chargées, vérifiées et chauffées avant la première connexion
+        long debut = System.nanoTime();
+        try {
+            TablesEvaluateur.preparer();
+        } catch (IllegalStateException e) {
+            System.err.println("Évaluateur non prêt, le serveur ne démarre pas: " + e.getMessage());
+            return;
+        }
+        System.out.println("Évaluateur prêt en " + (System.nanoTime() - debut) / 1_000_000 + " ms");
+
+        try (StatistiquesJoueurs stats = new StatistiquesJoueurs(Path.of(REPERTOIRE_STATISTIQUES));
+                HistoriqueMains mains = new HistoriqueMains(Path.of(REPERTOIRE_HISTORIQUE));
+                ServerSocket serverSocket = new ServerSocket(PORT)) {
+            statistiques = stats;
+            historique = mains;
+            // écrire les dernières statistiques en attente si le serveur est interrompu
+            Runtime.getRuntime().addShutdownHook(new Thread(stats::close));
             System.out.println("Serveur de poker démarré sur le port " + PORT);
 
             while (true) {
                 Socket clientSocket = serverSocket.accept();
-                ClientHandler handler = new ClientHandler(clientSocket, this);
+                if (!limiteAdmissions.consommer()) {
+                    refuserConnexion(clientSocket, "Serveur saturé, réessayez plus tard.");
+                    continue;
+                }
+                EtatAdresse adresse = reserverAdresse(clientSocket.getInetAddress());
+                if (adresse == null) {
+                    refuserConnexion(clientSocket, "Trop de connexions depuis votre adresse.");
+                    continue;
+                }
+                if (!connexions.tryAcquire()) {
+                    libererAdresse(clientSocket.getInetAddress());
+                    refuserConnexion(clientSocket, "Serveur saturé, réessayez plus tard.");
+                    continue;
+                }
+                ClientHandler handler = new ClientHandler(clientSocket, this, adresse);
                 new Thread(handler).start();
             }
         } catch (IOException e) {
@@ -31,6 +86,48 @@ public class ServerApp {
         }
     }
 
+    // prévenir le client et fermer sans créer de thread
+    private void refuserConnexion(Socket clientSocket, String raison) {
+        try (Socket socket = clientSocket) {
+            PrintWriter refus = new PrintWriter(socket.getOutputStream(), true);
+            refus.println(raison);
+        } catch (IOException e) {
+            System.err.println("Erreur lors du refus d'une connexion: " + e.getMessage());
+        }
+    }
+
+    // compter une connexion de plus pour cette adresse, null si elle en a déjà trop
+    private EtatAdresse reserverAdresse(InetAddress adresse) {
+        synchronized (adresses) {
+            EtatAdresse etat = adresses.computeIfAbsent(adresse, a -> new EtatAdresse());
+            if (etat.connexions >= MAX_CONNEXIONS_PAR_ADRESSE) {
+                return null;
+            }
+            etat.connexions++;
+            return etat;
+        }
+    }
+
+    private void libererAdresse(InetAddress adresse) {
+        synchronized (adresses) {
+            EtatAdresse etat = adresses.get(adresse);
+            etat.connexions--;
+            // oublier l'adresse seulement quand son état ne diffère plus d'un état neuf :
+            // se reconnecter ne remet donc pas la limite de START à zéro
+            if (etat.connexions == 0 && etat.demarrages.estPlein()) {
+                adresses.remove(adresse);
+            }
+        }
+    }
+
+    // connexions ouvertes et demandes de partie d'une même adresse distante
+    private static final class EtatAdresse {
+
+        private int connexions;
+        // START lance une partie et une diffusion à tous : limité aussi pour l'adresse entière
+        private final SeauJetons demarrages = new SeauJetons(3, 1);
+    }
+
     public synchronized void startGame(String initiator) {
         if (gameInProgress) {
             sendMessageToPlayer(initiator, "Une partie est déjà en cours.");
@@ -49,10 +146,21 @@ public class ServerApp {
         for (String player : clients.keySet()) {
             Joueur joueur = currentGame.getJoueurParNom(player);
             sendMessageToPlayer(player, "Vos cartes: " + joueur.getCartesPrivees());
+            envoyerEquitePreflop(player, joueur);
         }
         distribuerFlop();
     }
 
+    // équité préflop lue directement dans les tables précalculées
+    private void envoyerEquitePreflop(String player, Joueur joueur) {
+        if (tablesPreflop == null) {
+            return;
+        }
+        List<Carte> cartes = joueur.getCartesPrivees();
+        double equite = tablesPreflop.equite(cartes.get(0), cartes.get(1), currentGame.getNombreJoueurs());
+        sendMessageToPlayer(player, String.format("Équité préflop: %.1f%%", equite * 100));
+    }
+
     private void showMenu(String username) {
         ClientHandler handler = clients.get(username);
 
@@ -61,6 +169,7 @@ public class ServerApp {
         menu.append("1. START - Démarrer une nouvelle partie (si vous êtes le premier joueur).\n");
         menu.append("2. QUIT - Quitter la partie.\n");
         menu.append("3. HELP - Afficher ce menu.\n");
+        menu.append("4. STATS - Afficher vos statistiques.\n");
         menu.append("================\n");
         if (handler != null) {
             handler.sendMessage("PRIVÉ: " + menu.toString());
@@ -93,9 +202,31 @@ public class ServerApp {
 
         String winner = currentGame.determinerGagnant();
         broadcastMessage("SYSTEM", "Le gagnant est: " + winner);
+        enregistrerStatistiques();
+        enregistrerHistorique();
         endGame();
     }
 
+    private void enregistrerHistorique() {
+        try {
+            long id = historique.enregistrer(currentGame);
+            broadcastMessage("SYSTEM", "Main n°" + id + " enregistrée dans l'historique");
+        } catch (IOException e) {
+            System.err.println("Erreur d'écriture de l'historique: " + e.getMessage());
+        }
+    }
+
+    // simples incréments en mémoire, l'écriture sur disque se fait en arrière-plan
+    private void enregistrerStatistiques() {
+        Joueur gagnant = currentGame.getGagnant();
+        int nombreJoueurs = currentGame.getNombreJoueurs();
+        for (Joueur joueur : currentGame.getJoueurs()) {
+            boolean aGagne = joueur == gagnant;
+            statistiques.enregistrerMain(joueur.getNom(), joueur.getMeilleureMain().evaluerMain(),
+                    aGagne, aGagne ? nombreJoueurs - 1 : -1);
+        }
+    }
+
     private void endGame() {
         gameInProgress = false;
         currentGame = null;
@@ -119,13 +250,24 @@ public class ServerApp {
 
         private final Socket socket;
         private final ServerApp server;
+        private final EtatAdresse adresse;
         private PrintWriter out;
         private BufferedReader in;
         private String username;
+        private final SeauJetons limiteConnexion = new SeauJetons(RAFALE_CONNEXION, COMMANDES_PAR_SECONDE);
+        private final SeauJetons[] limitesCommandes = new SeauJetons[Commande.values().length];
+        // un seul avertissement tant que le client reste au-dessus de la limite
+        private boolean averti = false;
 
-        public ClientHandler(Socket socket, ServerApp server) {
+        public ClientHandler(Socket socket, ServerApp server, EtatAdresse adresse) {
             this.socket = socket;
             this.server = server;
+            this.adresse = adresse;
+            for (Commande commande : Commande.values()) {
+                if (commande.estLimitee()) {
+                    limitesCommandes[commande.ordinal()] = commande.nouveauSeau();
+                }
+            }
         }
 
         @Override
@@ -134,9 +276,13 @@ public class ServerApp {
                 out = new PrintWriter(socket.getOutputStream(), true);
                 in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
 
+                socket.setSoTimeout(DELAI_USERNAME_MS);
                 while (username == null) {
                     out.println("Entrez votre username:");
                     username = in.readLine();
+                    if (username == null) {
+                        return;
+                    }
                     if (server.clients.putIfAbsent(username, this) == null) {
                         out.println("Bienvenue " + username);
                         showMenu(username);
@@ -145,25 +291,48 @@ public class ServerApp {
                     out.println("Ce username est déjà pris. Essayez un autre.");
                     username = null;
                 }
+                socket.setSoTimeout(0);
 
                 String input;
                 while ((input = in.readLine()) != null) {
                     processCommand(input);
                 }
+            } catch (SocketTimeoutException e) {
+                System.err.println("Aucun username reçu de " + socket.getInetAddress() + ", connexion fermée");
             } catch (IOException e) {
                 System.err.println("Erreur avec le client " + username);
             } finally {
-                server.clients.remove(username);
+                if (username != null) {
+                    server.clients.remove(username);
+                }
+                try {
+                    socket.close();
+                } catch (IOException e) {
+                    // déjà fermée
+                }
+                server.libererAdresse(socket.getInetAddress());
+                server.connexions.release();
             }
         }
 
         private void processCommand(String command) {
-            switch (command.toUpperCase()) {
-                case "START":
+            Commande commande = Commande.analyser(command);
+            if (commande.estLimitee() && !autoriser(commande)) {
+                return;
+            }
+            switch (commande) {
+                case START:
+                    if (!adresse.demarrages.consommer()) {
+                        // refusée : la commande ne compte ni pour la connexion ni pour START
+                        limiteConnexion.rendre();
+                        limitesCommandes[commande.ordinal()].rendre();
+                        sendMessage("PRIVÉ: Trop de demandes de partie, réessayez plus tard.");
+                        break;
+                    }
                     server.broadcastMessage("JOUEUR", "Le joueur " + username + " a initié la partie");
                     server.startGame(username);
                     break;
-                case "QUIT":
+                case QUIT:
                     server.broadcastMessage("SYSTEM", "Le joueur " + username + " a quitté la partie");
                     try {
                         socket.close();
@@ -171,14 +340,35 @@ public class ServerApp {
                         System.err.println("Erreur lors de la fermeture de la connexion pour " + username);
                     }
                     break;
-                case "HELP":
+                case HELP:
                     showMenu(username);
                     break;
+                case STATS:
+                    sendMessage("PRIVÉ: " + statistiques.getStatistiques(username));
+                    break;
                 default:
                     sendMessage("Commande non reconnue.");
             }
         }
 
+        // limite de la connexion puis limite propre à la commande
+        private boolean autoriser(Commande commande) {
+            // seules les commandes acceptées sont décomptées de la connexion
+            SeauJetons limiteCommande = limitesCommandes[commande.ordinal()];
+            if (limiteCommande.consommer()) {
+                if (limiteConnexion.consommer()) {
+                    averti = false;
+                    return true;
+                }
+                limiteCommande.rendre();
+            }
+            if (!averti) {
+                averti = true;
+                sendMessage("PRIVÉ: Trop de commandes, ralentissez.");
+            }
+            return false;
+        }
+
         public void sendMessage(String message) {
             if (out != null) {
                 out.println(message);
@@ -0,0 +1,313 @@
+package edu.info0502.pocker;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Statistiques persistantes des joueurs, indexées par username.
+//
+// Le thread de jeu ne fait qu'incrémenter des compteurs en mémoire. Un thread d'écriture
+// vide périodiquement les incréments en attente à la fin d'un journal (stats.journal),
+// puis, quand le journal devient trop gros, réécrit un instantané complet (stats.db)
+// et repart d'un journal vide. Au démarrage : instantané + rejeu du journal.
+class StatistiquesJoueurs implements AutoCloseable {
+
+    private static final int MAGIE_JOURNAL = 0x53544A31; // "STJ1"
+    private static final int MAGIE_INSTANTANE = 0x53544431; // "STD1"
+    private static final long DELAI_ECRITURE_MS = 200;
+    private static final long TAILLE_MAX_JOURNAL = 4L * 1024 * 1024;
+
+    private final Path fichierJournal;
+    private final Path fichierInstantane;
+    // cache chaud lu par le serveur
+    private final Map<String, StatistiquesJoueur> totaux = new ConcurrentHashMap<>();
+    // incréments pas encore écrits dans le journal
+    private final Map<String, StatistiquesJoueur> enAttente = new ConcurrentHashMap<>();
+    // ce qui est effectivement sur disque, manipulé uniquement sous le verrou d'écriture
+    private final Map<String, StatistiquesJoueur> persistes = new HashMap<>();
+    private final Object verrouEcriture = new Object();
+    private final ScheduledExecutorService ecrivain;
+
+    // l'instantané et le journal portent une génération : un journal d'une autre génération
+    // que l'instantané est déjà inclus dedans (arrêt pendant un compactage)
+    private long generation;
+    private FileChannel canalJournal;
+    private DataOutputStream journal;
+    private boolean ferme = false;
+
+    public StatistiquesJoueurs(Path repertoire) throws IOException {
+        Files.createDirectories(repertoire);
+        fichierJournal = repertoire.resolve("stats.journal");
+        fichierInstantane = repertoire.resolve("stats.db");
+
+        chargerInstantane();
+        long finValide = rejouerJournal();
+        ouvrirJournal(finValide);
+        for (Map.Entry<String, StatistiquesJoueur> entree : persistes.entrySet()) {
+            totaux.put(entree.getKey(), entree.getValue().copie());
+        }
+
+        ecrivain = Executors.newSingleThreadScheduledExecutor(tache -> {
+            Thread thread = new Thread(tache, "ecriture-statistiques");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ecrivain.scheduleWithFixedDelay(this::viderSansErreur, DELAI_ECRITURE_MS, DELAI_ECRITURE_MS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    // appelé depuis le thread de jeu : uniquement des incréments en mémoire
+    public void enregistrerMain(String joueur, CombinaisonPoker combinaison, boolean gagnant, long resultat) {
+        totaux.computeIfAbsent(joueur, nom -> new StatistiquesJoueur())
+                .enregistrerMain(combinaison, gagnant, resultat);
+        enAttente.compute(joueur, (nom, delta) -> {
+            if (delta == null) {
+                delta = new StatistiquesJoueur();
+            }
+            delta.enregistrerMain(combinaison, gagnant, resultat);
+            return delta;
+        });
+    }
+
+    // copie des statistiques du joueur, ou statistiques vides s'il n'a jamais joué
+    public StatistiquesJoueur getStatistiques(String joueur) {
+        StatistiquesJoueur statistiques = totaux.get(joueur);
+        return statistiques != null ? statistiques.copie() : new StatistiquesJoueur();
+    }
+
+    // écrire les incréments en attente dans le journal, compacter si nécessaire
+    public void vider() throws IOException {
+        synchronized (verrouEcriture) {
+            if (ferme || enAttente.isEmpty()) {
+                return;
+            }
+            for (String joueur : enAttente.keySet()) {
+                // remove est atomique vis-à-vis de compute : aucun incrément n'est perdu
+                StatistiquesJoueur delta = enAttente.remove(joueur);
+                if (delta == null) {
+                    continue;
+                }
+                journal.writeUTF(joueur);
+                delta.ecrire(journal);
+                persistes.computeIfAbsent(joueur, nom -> new StatistiquesJoueur()).ajouter(delta);
+            }
+            journal.flush();
+
+            if (canalJournal.size() > TAILLE_MAX_JOURNAL) {
+                compacter();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (verrouEcriture) {
+            if (ferme) {
+                return;
+            }
+            ecrivain.shutdown();
+            viderSansErreur();
+            ferme = true;
+            try {
+                journal.close();
+            } catch (IOException e) {
+                System.err.println("Erreur lors de la fermeture du journal des statistiques: " + e.getMessage());
+            }
+        }
+    }
+
+    private void viderSansErreur() {
+        try {
+            vider();
+        } catch (IOException e) {
+            System.err.println("Erreur d'écriture des statistiques: " + e.getMessage());
+        }
+    }
+
+    // réécrire l'instantané complet puis repartir d'un journal vide
+    private void compacter() throws IOException {
+        generation++;
+        Path temporaire = fichierInstantane.resolveSibling(fichierInstantane.getFileName() + ".tmp");
+        try (DataOutputStream sortie = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaire)))) {
+            sortie.writeInt(MAGIE_INSTANTANE);
+            sortie.writeLong(generation);
+            sortie.writeInt(persistes.size());
+            for (Map.Entry<String, StatistiquesJoueur> entree : persistes.entrySet()) {
+                sortie.writeUTF(entree.getKey());
+                entree.getValue().ecrire(sortie);
+            }
+        }
+        Files.move(temporaire, fichierInstantane, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+
+        journal.close();
+        Files.delete(fichierJournal);
+        ouvrirJournal(0);
+    }
+
+    private void chargerInstantane() throws IOException {
+        if (!Files.exists(fichierInstantane)) {
+            return;
+        }
+        try (DataInputStream entree = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(fichierInstantane)))) {
+            if (entree.readInt() != MAGIE_INSTANTANE) {
+                throw new IOException("Instantané des statistiques invalide: " + fichierInstantane);
+            }
+            generation = entree.readLong();
+            int nombre = entree.readInt();
+            for (int i = 0; i < nombre; i++) {
+                persistes.put(entree.readUTF(), StatistiquesJoueur.lire(entree));
+            }
+        }
+    }
+
+    // rejoue le journal et renvoie la position du dernier enregistrement complet
+    private long rejouerJournal() throws IOException {
+        if (!Files.exists(fichierJournal)) {
+            return 0;
+        }
+        byte[] contenu = Files.readAllBytes(fichierJournal);
+        ByteArrayInputStream octets = new ByteArrayInputStream(contenu);
+        DataInputStream entree = new DataInputStream(octets);
+        try {
+            if (entree.readInt() != MAGIE_JOURNAL || entree.readLong() != generation) {
+                // journal d'une génération déjà compactée dans l'instantané
+                return 0;
+            }
+        } catch (EOFException e) {
+            return 0;
+        }
+
+        long finValide = contenu.length - octets.available();
+        try {
+            while (octets.available() > 0) {
+                String joueur = entree.readUTF();
+                StatistiquesJoueur delta = StatistiquesJoueur.lire(entree);
+                persistes.computeIfAbsent(joueur, nom -> new StatistiquesJoueur()).ajouter(delta);
+                finValide = contenu.length - octets.available();
+            }
+        } catch (EOFException e) {
+            // dernier enregistrement tronqué par un arrêt brutal : il est ignoré
+        }
+        return finValide;
+    }
+
+    private void ouvrirJournal(long finValide) throws IOException {
+        canalJournal = FileChannel.open(fichierJournal, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        journal = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(canalJournal)));
+        if (finValide == 0) {
+            canalJournal.truncate(0);
+            journal.writeInt(MAGIE_JOURNAL);
+            journal.writeLong(generation);
+            journal.flush();
+        } else {
+            canalJournal.truncate(finValide);
+            canalJournal.position(finValide);
+        }
+    }
+}
+
+// Compteurs d'un joueur ; sert aussi d'incrément dans le journal
+class StatistiquesJoueur {
+
+    private long mainsJouees;
+    private long abattagesGagnes;
+    // résultat net en mises unitaires : +(n - 1) pour le gagnant, -1 pour les autres
+    private long resultatNet;
+    private final long[] victoiresParCombinaison = new long[CombinaisonPoker.values().length];
+
+    public synchronized void enregistrerMain(CombinaisonPoker combinaison, boolean gagnant, long resultat) {
+        mainsJouees++;
+        resultatNet += resultat;
+        if (gagnant) {
+            abattagesGagnes++;
+            victoiresParCombinaison[combinaison.ordinal()]++;
+        }
+    }
+
+    public synchronized void ajouter(StatistiquesJoueur autre) {
+        mainsJouees += autre.mainsJouees;
+        abattagesGagnes += autre.abattagesGagnes;
+        resultatNet += autre.resultatNet;
+        for (int i = 0; i < victoiresParCombinaison.length; i++) {
+            victoiresParCombinaison[i] += autre.victoiresParCombinaison[i];
+        }
+    }
+
+    public synchronized StatistiquesJoueur copie() {
+        StatistiquesJoueur copie = new StatistiquesJoueur();
+        copie.ajouter(this);
+        return copie;
+    }
+
+    public long getMainsJouees() {
+        return mainsJouees;
+    }
+
+    public long getAbattagesGagnes() {
+        return abattagesGagnes;
+    }
+
+    public long getResultatNet() {
+        return resultatNet;
+    }
+
+    public long getVictoires(CombinaisonPoker combinaison) {
+        return victoiresParCombinaison[combinaison.ordinal()];
+    }
+
+    void ecrire(DataOutputStream sortie) throws IOException {
+        sortie.writeLong(mainsJouees);
+        sortie.writeLong(abattagesGagnes);
+        sortie.writeLong(resultatNet);
+        sortie.writeByte(victoiresParCombinaison.length);
+        for (long victoires : victoiresParCombinaison) {
+            sortie.writeLong(victoires);
+        }
+    }
+
+    static StatistiquesJoueur lire(DataInputStream entree) throws IOException {
+        StatistiquesJoueur statistiques = new StatistiquesJoueur();
+        statistiques.mainsJouees = entree.readLong();
+        statistiques.abattagesGagnes = entree.readLong();
+        statistiques.resultatNet = entree.readLong();
+        int nombre = entree.readUnsignedByte();
+        for (int i = 0; i < nombre; i++) {
+            long victoires = entree.readLong();
+            if (i < statistiques.victoiresParCombinaison.length) {
+                statistiques.victoiresParCombinaison[i] = victoires;
+            }
+        }
+        return statistiques;
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder texte = new StringBuilder();
+        texte.append("Mains jouées: ").append(mainsJouees)
+                .append(", abattages gagnés: ").append(abattagesGagnes)
+                .append(", résultat net: ").append(resultatNet);
+        for (CombinaisonPoker combinaison : CombinaisonPoker.values()) {
+            long victoires = victoiresParCombinaison[combinaison.ordinal()];
+            if (victoires > 0) {
+                texte.append(", ").append(combinaison).append(": ").append(victoires);
+            }
+        }
+        return texte.toString();
+    }
+}
@@ -0,0 +1,108 @@
+package edu.info0502.pocker;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.CRC32;
+
+// Tables de l'évaluateur indexées par masque de 13 rangs : hauteur de quinte, rang le plus haut
+// et les 1, 2, 3 ou 5 rangs les plus hauts. Elles sont générées au build (GenerateurTablesEvaluateur)
+// et chargées en bloc, au premier usage, depuis une ressource du jar.
+//
+// Format (gros-boutiste) : magie, version, taille, byte[taille] quintes, byte[taille] plus haut,
+// short[taille] pour chaque nombre de rangs gardés, puis la somme CRC32 de tout ce qui précède.
+final class TablesEvaluateur {
+
+    static final String RESSOURCE = "tables-evaluateur.bin";
+    static final int MAGIE = 0x45564131; // "EVA1"
+    static final int VERSION = 1;
+    static final int TAILLE = 1 << 13;
+    static final int[] NOMBRES_GARDES = {1, 2, 3, 5};
+    static final int TAILLE_RESSOURCE = 3 * Integer.BYTES + 2 * TAILLE
+            + NOMBRES_GARDES.length * TAILLE * Short.BYTES + Integer.BYTES;
+
+    private static volatile boolean pret = false;
+
+    final byte[] quintes = new byte[TAILLE];
+    final byte[] plusHaut = new byte[TAILLE];
+    // plusHauts[n] : masque des n rangs les plus hauts
+    final short[][] plusHauts = new short[6][];
+
+    private TablesEvaluateur(ByteBuffer tampon) {
+        tampon.position(3 * Integer.BYTES);
+        tampon.get(quintes);
+        tampon.get(plusHaut);
+        for (int n : NOMBRES_GARDES) {
+            plusHauts[n] = new short[TAILLE];
+            tampon.asShortBuffer().get(plusHauts[n]);
+            tampon.position(tampon.position() + TAILLE * Short.BYTES);
+        }
+    }
+
+    // chargement paresseux à la première utilisation de l'évaluateur
+    private static final class Detenteur {
+        static final TablesEvaluateur INSTANCE = charger();
+    }
+
+    static TablesEvaluateur instance() {
+        return Detenteur.INSTANCE;
+    }
+
+    // charger et vérifier les tables puis chauffer l'évaluateur, à appeler avant d'accepter des connexions ;
+    // IllegalStateException si les tables sont absentes, corrompues ou incohérentes
+    public static void preparer() {
+        if (pret) {
+            return;
+        }
+        try {
+            instance();
+        } catch (ExceptionInInitializerError e) {
+            // l'échec du chargement arrive enveloppé par l'initialisation de Detenteur
+            throw e.getCause() instanceof IllegalStateException
+                    ? (IllegalStateException) e.getCause()
+                    : new IllegalStateException("Chargement des tables de l'évaluateur impossible", e.getCause());
+        }
+        ThreadLocalRandom hasard = ThreadLocalRandom.current();
+        for (int i = 0; i < 100_000; i++) {
+            Evaluateur.evaluer(hasard.nextLong() & hasard.nextLong() & hasard.nextLong() & ((1L << 52) - 1));
+        }
+        long quinteFlushRoyale = 0x1FL << 8;
+        if (Evaluateur.categorie(Evaluateur.evaluer(quinteFlushRoyale)) != CombinaisonPoker.QUINTE_FLUSH_ROYALE) {
+            throw new IllegalStateException("Tables de l'évaluateur incohérentes");
+        }
+        pret = true;
+    }
+
+    private static TablesEvaluateur charger() {
+        byte[] contenu;
+        try (InputStream entree = TablesEvaluateur.class.getResourceAsStream(RESSOURCE)) {
+            if (entree == null) {
+                // lancement hors Gradle (IDE) : on recalcule les tables en mémoire
+                System.err.println("Ressource " + RESSOURCE + " absente, tables calculées au démarrage");
+                contenu = GenerateurTablesEvaluateur.generer();
+            } else {
+                contenu = entree.readAllBytes();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Lecture de " + RESSOURCE + " impossible", e);
+        }
+        return new TablesEvaluateur(verifier(contenu));
+    }
+
+    private static ByteBuffer verifier(byte[] contenu) {
+        if (contenu.length != TAILLE_RESSOURCE) {
+            throw new IllegalStateException("Taille inattendue pour " + RESSOURCE + " : " + contenu.length);
+        }
+        ByteBuffer tampon = ByteBuffer.wrap(contenu);
+        if (tampon.getInt(0) != MAGIE || tampon.getInt(4) != VERSION || tampon.getInt(8) != TAILLE) {
+            throw new IllegalStateException("En-tête invalide pour " + RESSOURCE);
+        }
+        CRC32 somme = new CRC32();
+        somme.update(contenu, 0, contenu.length - Integer.BYTES);
+        if ((int) somme.getValue() != tampon.getInt(contenu.length - Integer.BYTES)) {
+            throw new IllegalStateException("Somme de contrôle invalide pour " + RESSOURCE);
+        }
+        return tampon;
+    }
+}
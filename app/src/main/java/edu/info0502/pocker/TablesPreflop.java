@@ -0,0 +1,123 @@
+package edu.info0502.pocker;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+// Tables d'équité préflop des 169 mains de départ, de 2 à 10 joueurs,
+// lues en lecture seule par projection mémoire du fichier produit par GenerateurTablesPreflop.
+//
+// Format (gros-boutiste) : magie, version, nombre de classes, joueurs min, joueurs max,
+// puis un float par (classe, nombre de joueurs).
+class TablesPreflop {
+
+    static final int MAGIE = 0x50464551; // "PFEQ"
+    static final int VERSION = 1;
+    static final int NOMBRE_CLASSES = 169;
+    static final int JOUEURS_MIN = 2;
+    static final int JOUEURS_MAX = 10;
+    static final int TAILLE_ENTETE = 5 * Integer.BYTES;
+    static final int TAILLE_FICHIER = TAILLE_ENTETE
+            + NOMBRE_CLASSES * (JOUEURS_MAX - JOUEURS_MIN + 1) * Float.BYTES;
+
+    private static final String RANGS = "23456789TJQKA";
+
+    private final MappedByteBuffer donnees;
+
+    private TablesPreflop(MappedByteBuffer donnees) {
+        this.donnees = donnees;
+    }
+
+    public static TablesPreflop charger(Path fichier) throws IOException {
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            if (canal.size() != TAILLE_FICHIER) {
+                throw new IOException("Taille inattendue pour " + fichier + " : " + canal.size());
+            }
+            // la projection reste valide après la fermeture du canal
+            MappedByteBuffer donnees = canal.map(FileChannel.MapMode.READ_ONLY, 0, TAILLE_FICHIER);
+            if (donnees.getInt(0) != MAGIE || donnees.getInt(4) != VERSION
+                    || donnees.getInt(8) != NOMBRE_CLASSES
+                    || donnees.getInt(12) != JOUEURS_MIN || donnees.getInt(16) != JOUEURS_MAX) {
+                throw new IOException("En-tête invalide pour " + fichier);
+            }
+            return new TablesPreflop(donnees);
+        }
+    }
+
+    // renvoie null si le fichier n'a pas encore été généré
+    public static TablesPreflop chargerSiPresent(Path fichier) {
+        if (!Files.exists(fichier)) {
+            System.out.println("Tables préflop absentes (" + fichier + "), lancer la tâche genererTablesPreflop");
+            return null;
+        }
+        try {
+            return charger(fichier);
+        } catch (IOException e) {
+            System.err.println("Erreur de chargement des tables préflop: " + e.getMessage());
+            return null;
+        }
+    }
+
+    public double equite(Carte carte1, Carte carte2, int nombreJoueurs) {
+        return equite(classe(carte1, carte2), nombreJoueurs);
+    }
+
+    public double equite(int classe, int nombreJoueurs) {
+        if (nombreJoueurs < JOUEURS_MIN || nombreJoueurs > JOUEURS_MAX) {
+            throw new IllegalArgumentException("Le nombre de joueurs doit être entre 2 et 10");
+        }
+        return donnees.getFloat(position(classe, nombreJoueurs));
+    }
+
+    static int position(int classe, int nombreJoueurs) {
+        return TAILLE_ENTETE
+                + (classe * (JOUEURS_MAX - JOUEURS_MIN + 1) + nombreJoueurs - JOUEURS_MIN) * Float.BYTES;
+    }
+
+    // classe canonique de la main sur une grille 13 x 13 :
+    // paires sur la diagonale, assorties au-dessus (haut * 13 + bas), dépareillées en dessous (bas * 13 + haut)
+    public static int classe(Carte carte1, Carte carte2) {
+        int r1 = carte1.getValeur().ordinal();
+        int r2 = carte2.getValeur().ordinal();
+        int haut = Math.max(r1, r2);
+        int bas = Math.min(r1, r2);
+        return carte1.getCouleur() == carte2.getCouleur() ? haut * 13 + bas : bas * 13 + haut;
+    }
+
+    public static String nomClasse(int classe) {
+        int ligne = classe / 13;
+        int colonne = classe % 13;
+        if (ligne == colonne) {
+            return "" + RANGS.charAt(ligne) + RANGS.charAt(ligne);
+        }
+        return ligne > colonne
+                ? "" + RANGS.charAt(ligne) + RANGS.charAt(colonne) + "s"
+                : "" + RANGS.charAt(colonne) + RANGS.charAt(ligne) + "o";
+    }
+
+    // écrire des tables déjà calculées : equites[classe][nombreJoueurs - JOUEURS_MIN]
+    static void ecrire(Path fichier, float[][] equites) throws IOException {
+        ByteBuffer tampon = ByteBuffer.allocate(TAILLE_FICHIER);
+        tampon.putInt(MAGIE).putInt(VERSION).putInt(NOMBRE_CLASSES).putInt(JOUEURS_MIN).putInt(JOUEURS_MAX);
+        for (float[] ligne : equites) {
+            for (float equite : ligne) {
+                tampon.putFloat(equite);
+            }
+        }
+        tampon.flip();
+
+        Path temporaire = fichier.resolveSibling(fichier.getFileName() + ".tmp");
+        try (FileChannel canal = FileChannel.open(temporaire, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (tampon.hasRemaining()) {
+                canal.write(tampon);
+            }
+        }
+        Files.move(temporaire, fichier, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
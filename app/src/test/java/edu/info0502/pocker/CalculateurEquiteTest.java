@@ -0,0 +1,87 @@
+package edu.info0502.pocker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+public class CalculateurEquiteTest {
+
+    private static final double PRECISION = 1e-12;
+
+    // sur le flop tous les tableaux sont énumérés : les décomptes doivent être exactement
+    // ceux d'une confrontation naïve de chaque paire de mains compatibles
+    @Test
+    public void flopEgalConfrontationNaive() {
+        verifierContreNaif("QQ+, AKs, JTs, 76s", "KK, AK, JTs, T9s, 22", "Ah7d2c");
+        verifierContreNaif("AhKh, QQ", "AhKh, QQ-99, KQo", "Qs8h3h");
+    }
+
+    @Test
+    public void turnEtRiverEgalConfrontationNaive() {
+        verifierContreNaif("AA, KQs", "KK+, QJs", "Ah7d2cKs");
+        verifierContreNaif("TT+, AQ+", "22+", "Kh9s4c3d8h");
+    }
+
+    @Test
+    public void resultatMisEnCache() {
+        CalculateurEquite calculateur = new CalculateurEquite();
+        long tableau = Masques.depuis("Ah7d2c");
+        ResultatEquite premier = calculateur.calculer("QQ+, AKs", "JJ", tableau);
+        // même gamme écrite autrement : mêmes combinaisons, même entrée du cache
+        assertSame(premier, calculateur.calculer("AKs, KK+, QQ", "JJ", tableau));
+    }
+
+    @Test
+    public void preflopAsContreRois() {
+        ResultatEquite resultat = new CalculateurEquite().calculer("AA", "KK", 0L);
+        assertEquals(0.82, resultat.getEquite1(), 0.01);
+        assertEquals(1.0, resultat.getEquite1() + resultat.getEquite2(), PRECISION);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tableauDeDeuxCartesRefuse() {
+        new CalculateurEquite().calculer("AA", "KK", Masques.depuis("2c3d"));
+    }
+
+    private static void verifierContreNaif(String gamme1, String gamme2, String cartes) {
+        long tableau = Masques.depuis(cartes);
+        ResultatEquite resultat = new CalculateurEquite().calculer(gamme1, gamme2, tableau);
+
+        long[] mains1 = Gamme.parser(gamme1).getCombinaisons();
+        long[] mains2 = Gamme.parser(gamme2).getCombinaisons();
+        long[] decomptes = new long[3];
+        enumerer(mains1, mains2, tableau, 0, decomptes);
+        long gains1 = decomptes[0];
+        long gains2 = decomptes[1];
+        long egalites = decomptes[2];
+        long total = gains1 + gains2 + egalites;
+
+        String contexte = gamme1 + " contre " + gamme2 + " sur " + cartes;
+        assertEquals(contexte, total, resultat.getConfrontations());
+        assertEquals(contexte, (gains1 + egalites / 2.0) / total, resultat.getEquite1(), PRECISION);
+        assertEquals(contexte, (gains2 + egalites / 2.0) / total, resultat.getEquite2(), PRECISION);
+        assertEquals(contexte, (double) egalites / total, resultat.getEgalite(), PRECISION);
+    }
+
+    // compléter le tableau carte par carte (ordre croissant), puis confronter toutes les paires
+    private static void enumerer(long[] mains1, long[] mains2, long tableau, int debut, long[] decomptes) {
+        if (Long.bitCount(tableau) == 5) {
+            for (long main1 : mains1) {
+                if ((main1 & tableau) != 0) continue;
+                int score1 = Evaluateur.evaluer(main1 | tableau);
+                for (long main2 : mains2) {
+                    if ((main2 & (tableau | main1)) != 0) continue;
+                    int score2 = Evaluateur.evaluer(main2 | tableau);
+                    decomptes[score1 > score2 ? 0 : score2 > score1 ? 1 : 2]++;
+                }
+            }
+            return;
+        }
+        for (int carte = debut; carte < 52; carte++) {
+            if ((tableau & (1L << carte)) == 0) {
+                enumerer(mains1, mains2, tableau | (1L << carte), carte + 1, decomptes);
+            }
+        }
+    }
+}
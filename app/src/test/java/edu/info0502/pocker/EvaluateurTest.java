@@ -0,0 +1,135 @@
+package edu.info0502.pocker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import org.junit.Test;
+
+public class EvaluateurTest {
+
+    private static final int TIRAGES = 200_000;
+
+    // sur 7 cartes, le score doit être celui de la meilleure des 21 mains de 5 cartes
+    @Test
+    public void septCartesEgalMeilleureDeCinq() {
+        Random hasard = new Random(502);
+        for (int t = 0; t < TIRAGES; t++) {
+            long masque = tirer(hasard, 7);
+            assertEquals(Long.toHexString(masque), meilleureDeCinq(masque), Evaluateur.evaluer(masque));
+        }
+    }
+
+    // catégorie des mains de 5 cartes comparée à un classement naïf par comptage des rangs
+    @Test
+    public void categorieCinqCartesEgalClassementNaif() {
+        Random hasard = new Random(205);
+        for (int t = 0; t < TIRAGES; t++) {
+            long masque = tirer(hasard, 5);
+            assertEquals(Long.toHexString(masque), categorieNaive(masque),
+                    Evaluateur.categorie(Evaluateur.evaluer(masque)));
+        }
+    }
+
+    @Test
+    public void mainsRares() {
+        assertCategorie(CombinaisonPoker.QUINTE_FLUSH_ROYALE, "AhKhQhJhTh2c3d");
+        assertCategorie(CombinaisonPoker.QUINTE_FLUSH, "5s4s3s2sAs9h9d");
+        assertCategorie(CombinaisonPoker.CARRE, "7h7d7s7cKh2d3c");
+        assertCategorie(CombinaisonPoker.FULL, "7h7d7sKcKh2d2c");
+        assertCategorie(CombinaisonPoker.QUINTE, "5h4d3s2cAh9d9c");
+    }
+
+    @Test
+    public void departages() {
+        // la quinte au 5 (roue) perd contre la quinte au 6
+        assertPlusFort("6h5d4s3c2hKdKc", "5h4d3s2cAhKdKc");
+        // même paire : le kicker décide, et seuls les 3 meilleurs kickers comptent
+        assertPlusFort("AhAdKs9c7h3d2c", "AhAdQs9c7h3d2c");
+        assertEquals(Evaluateur.evaluer(Masques.depuis("AhAdKsQcJh3d2c")),
+                Evaluateur.evaluer(Masques.depuis("AhAdKsQcJh4d2c")));
+        // full : le brelan passe avant la paire
+        assertPlusFort("3h3d3sKcKh9d2c", "2h2d2sAcAh9d8c");
+        // deux paires : la troisième paire ne compte que comme kicker
+        assertPlusFort("KhKdQsQc2h2dAc", "KhKdQsQc3h3dJc");
+    }
+
+    private static void assertCategorie(CombinaisonPoker attendue, String cartes) {
+        assertEquals(cartes, attendue, Evaluateur.categorie(Evaluateur.evaluer(Masques.depuis(cartes))));
+    }
+
+    private static void assertPlusFort(String forte, String faible) {
+        assertTrue(forte + " > " + faible,
+                Evaluateur.evaluer(Masques.depuis(forte)) > Evaluateur.evaluer(Masques.depuis(faible)));
+    }
+
+    private static long tirer(Random hasard, int nombre) {
+        long masque = 0L;
+        while (Long.bitCount(masque) < nombre) {
+            masque |= 1L << hasard.nextInt(52);
+        }
+        return masque;
+    }
+
+    private static int meilleureDeCinq(long masque) {
+        int[] cartes = new int[7];
+        int n = 0;
+        for (long reste = masque; reste != 0; reste &= reste - 1) {
+            cartes[n++] = Long.numberOfTrailingZeros(reste);
+        }
+        int meilleur = -1;
+        // retirer deux cartes sur sept
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                long cinq = masque & ~(1L << cartes[i]) & ~(1L << cartes[j]);
+                meilleur = Math.max(meilleur, Evaluateur.evaluer(cinq));
+            }
+        }
+        return meilleur;
+    }
+
+    private static CombinaisonPoker categorieNaive(long masque) {
+        int[] parRang = new int[13];
+        int[] parCouleur = new int[4];
+        for (long reste = masque; reste != 0; reste &= reste - 1) {
+            int carte = Long.numberOfTrailingZeros(reste);
+            parRang[carte % 13]++;
+            parCouleur[carte / 13]++;
+        }
+
+        boolean couleur = false;
+        for (int nombre : parCouleur) {
+            couleur |= nombre == 5;
+        }
+        int rangs = 0;
+        for (int rang = 0; rang < 13; rang++) {
+            if (parRang[rang] > 0) rangs |= 1 << rang;
+        }
+        int hauteurQuinte = -1;
+        for (int haut = 12; haut >= 4 && hauteurQuinte < 0; haut--) {
+            if ((rangs >> (haut - 4) & 0x1F) == 0x1F) hauteurQuinte = haut;
+        }
+        // la roue : A-2-3-4-5, l'as compte comme 1
+        if (hauteurQuinte < 0 && (rangs & 0x100F) == 0x100F) hauteurQuinte = 3;
+
+        if (couleur && hauteurQuinte == 12) return CombinaisonPoker.QUINTE_FLUSH_ROYALE;
+        if (couleur && hauteurQuinte >= 0) return CombinaisonPoker.QUINTE_FLUSH;
+
+        int paires = 0;
+        int brelans = 0;
+        int carres = 0;
+        for (int nombre : parRang) {
+            if (nombre == 2) paires++;
+            if (nombre == 3) brelans++;
+            if (nombre == 4) carres++;
+        }
+        if (carres == 1) return CombinaisonPoker.CARRE;
+        if (brelans == 1 && paires == 1) return CombinaisonPoker.FULL;
+        if (couleur) return CombinaisonPoker.COULEUR;
+        if (hauteurQuinte >= 0) return CombinaisonPoker.QUINTE;
+        if (brelans == 1) return CombinaisonPoker.BRELAN;
+        if (paires == 2) return CombinaisonPoker.DEUX_PAIRES;
+        if (paires == 1) return CombinaisonPoker.PAIRE;
+        return CombinaisonPoker.CARTE_HAUTE;
+    }
+}
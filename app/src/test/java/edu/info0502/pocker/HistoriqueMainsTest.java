@@ -0,0 +1,110 @@
+package edu.info0502.pocker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class HistoriqueMainsTest {
+
+    @Rule
+    public TemporaryFolder dossier = new TemporaryFolder();
+
+    @Test
+    public void mainsRelues() throws IOException {
+        Path repertoire = dossier.getRoot().toPath();
+        PokerHoldem[] parties = new PokerHoldem[3];
+        try (HistoriqueMains historique = new HistoriqueMains(repertoire)) {
+            for (int i = 0; i < parties.length; i++) {
+                parties[i] = jouer("alice", "bob", "carole");
+                assertEquals(i + 1, historique.enregistrer(parties[i]));
+            }
+        }
+
+        for (int i = 0; i < parties.length; i++) {
+            MainJouee main = HistoriqueMains.lire(repertoire, i + 1);
+            assertNotNull(main);
+            assertEquals(i + 1, main.getId());
+            assertEquals(3, main.getNombreJoueurs());
+            assertEquals("bob", main.getJoueur(1));
+            assertEquals(Carte.masque(parties[i].getCartesCommunes()), main.masqueTableau());
+            assertEquals(Carte.masque(parties[i].getJoueurs().get(2).getCartesPrivees()), main.masqueCartesPrivees(2));
+        }
+        assertNull(HistoriqueMains.lire(repertoire, 4));
+    }
+
+    @Test
+    public void numerotationRepriseApresRedemarrage() throws IOException {
+        Path repertoire = dossier.getRoot().toPath();
+        enregistrer(repertoire, 2);
+        try (HistoriqueMains historique = new HistoriqueMains(repertoire)) {
+            assertEquals(3, historique.enregistrer(jouer("alice", "bob")));
+        }
+    }
+
+    // arrêt brutal au milieu d'un enregistrement : l'entrée d'index pointe vers des données incomplètes
+    @Test
+    public void donneesTronqueesReprises() throws IOException {
+        Path repertoire = dossier.getRoot().toPath();
+        Path donnees = enregistrer(repertoire, 3);
+        tronquer(donnees, 3);
+
+        try (HistoriqueMains historique = new HistoriqueMains(repertoire)) {
+            assertNull(HistoriqueMains.lire(repertoire, 3));
+            assertEquals(3, historique.enregistrer(jouer("dan", "eve")));
+        }
+        assertEquals("dan", HistoriqueMains.lire(repertoire, 3).getJoueur(0));
+        assertEquals("alice", HistoriqueMains.lire(repertoire, 2).getJoueur(0));
+    }
+
+    // arrêt brutal pendant l'écriture de l'index : l'entrée incomplète est ignorée
+    @Test
+    public void indexTronqueRepris() throws IOException {
+        Path repertoire = dossier.getRoot().toPath();
+        Path donnees = enregistrer(repertoire, 2);
+        try (FileChannel index = FileChannel.open(HistoriqueMains.fichierIndex(donnees), StandardOpenOption.WRITE)) {
+            index.write(ByteBuffer.allocate(Long.BYTES / 2), index.size());
+        }
+
+        try (HistoriqueMains historique = new HistoriqueMains(repertoire)) {
+            assertEquals(3, historique.enregistrer(jouer("dan", "eve")));
+        }
+        assertEquals("dan", HistoriqueMains.lire(repertoire, 3).getJoueur(0));
+    }
+
+    // écrire des mains puis renvoyer le fichier de données du segment
+    private static Path enregistrer(Path repertoire, int nombre) throws IOException {
+        try (HistoriqueMains historique = new HistoriqueMains(repertoire)) {
+            for (int i = 0; i < nombre; i++) {
+                historique.enregistrer(jouer("alice", "bob"));
+            }
+        }
+        return HistoriqueMains.listerSegments(repertoire).lastEntry().getValue();
+    }
+
+    private static PokerHoldem jouer(String... joueurs) {
+        PokerHoldem partie = new PokerHoldem(Arrays.asList(joueurs));
+        partie.demarrerPartie();
+        partie.distribuerFlop();
+        partie.distribuerTurn();
+        partie.distribuerRiver();
+        partie.calculerResultats();
+        partie.determinerGagnant();
+        return partie;
+    }
+
+    private static void tronquer(Path fichier, int octets) throws IOException {
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.WRITE)) {
+            canal.truncate(canal.size() - octets);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package edu.info0502.pocker;
+
+// Masques de cartes écrits comme dans les gammes : "Ah7d2c" (rang puis couleur h, d, s, c).
+final class Masques {
+
+    private static final String RANGS = "23456789TJQKA";
+    private static final String COULEURS = "hdsc";
+
+    private Masques() {
+    }
+
+    static long depuis(String cartes) {
+        long masque = 0L;
+        for (int i = 0; i < cartes.length(); i += 2) {
+            int rang = RANGS.indexOf(cartes.charAt(i));
+            int couleur = COULEURS.indexOf(cartes.charAt(i + 1));
+            if (rang < 0 || couleur < 0) {
+                throw new IllegalArgumentException("Carte invalide : " + cartes.substring(i, i + 2));
+            }
+            masque |= 1L << (couleur * 13 + rang);
+        }
+        return masque;
+    }
+}
@@ -0,0 +1,98 @@
+package edu.info0502.pocker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class StatistiquesJoueursTest {
+
+    @Rule
+    public TemporaryFolder dossier = new TemporaryFolder();
+
+    @Test
+    public void statistiquesConserveesApresRedemarrage() throws IOException {
+        Path repertoire = dossier.getRoot().toPath();
+        try (StatistiquesJoueurs stats = new StatistiquesJoueurs(repertoire)) {
+            stats.enregistrerMain("alice", CombinaisonPoker.FULL, true, 2);
+            stats.enregistrerMain("bob", CombinaisonPoker.PAIRE, false, -1);
+            stats.enregistrerMain("alice", CombinaisonPoker.PAIRE, false, -1);
+        }
+
+        try (StatistiquesJoueurs stats = new StatistiquesJoueurs(repertoire)) {
+            StatistiquesJoueur alice = stats.getStatistiques("alice");
+            assertEquals(2, alice.getMainsJouees());
+            assertEquals(1, alice.getAbattagesGagnes());
+            assertEquals(1, alice.getResultatNet());
+            assertEquals(1, alice.getVictoires(CombinaisonPoker.FULL));
+            assertEquals(1, stats.getStatistiques("bob").getMainsJouees());
+            assertEquals(0, stats.getStatistiques("carole").getMainsJouees());
+        }
+    }
+
+    // arrêt brutal pendant l'écriture : seul le dernier enregistrement, incomplet, est perdu
+    @Test
+    public void journalTronqueRepris() throws IOException {
+        Path repertoire = dossier.getRoot().toPath();
+        try (StatistiquesJoueurs stats = new StatistiquesJoueurs(repertoire)) {
+            stats.enregistrerMain("alice", CombinaisonPoker.PAIRE, true, 1);
+            stats.enregistrerMain("bob", CombinaisonPoker.PAIRE, false, -1);
+            stats.vider();
+            stats.enregistrerMain("alice", CombinaisonPoker.BRELAN, true, 1);
+        }
+        tronquer(repertoire.resolve("stats.journal"), 5);
+
+        try (StatistiquesJoueurs stats = new StatistiquesJoueurs(repertoire)) {
+            assertEquals(1, stats.getStatistiques("alice").getMainsJouees());
+            assertEquals(1, stats.getStatistiques("bob").getMainsJouees());
+            // la fin tronquée est coupée : les nouveaux enregistrements se relisent correctement
+            stats.enregistrerMain("alice", CombinaisonPoker.COULEUR, true, 1);
+        }
+
+        try (StatistiquesJoueurs stats = new StatistiquesJoueurs(repertoire)) {
+            StatistiquesJoueur alice = stats.getStatistiques("alice");
+            assertEquals(2, alice.getMainsJouees());
+            assertEquals(1, alice.getVictoires(CombinaisonPoker.COULEUR));
+            assertEquals(0, alice.getVictoires(CombinaisonPoker.BRELAN));
+        }
+    }
+
+    // assez d'écritures pour dépasser la taille maximale du journal et déclencher un compactage
+    @Test
+    public void compactageSansPerte() throws IOException {
+        Path repertoire = dossier.getRoot().toPath();
+        int mains = 40_000;
+        try (StatistiquesJoueurs stats = new StatistiquesJoueurs(repertoire)) {
+            for (int i = 0; i < mains; i++) {
+                stats.enregistrerMain("joueur" + i % 50, CombinaisonPoker.PAIRE, i % 2 == 0, i % 2 == 0 ? 1 : -1);
+                stats.vider();
+            }
+        }
+        assertTrue(Files.exists(repertoire.resolve("stats.db")));
+        // un enregistrement fait une centaine d'octets : sans compactage le journal dépasserait 4 Mo
+        assertTrue(Files.size(repertoire.resolve("stats.journal")) < 4L * 1024 * 1024);
+
+        try (StatistiquesJoueurs stats = new StatistiquesJoueurs(repertoire)) {
+            long total = 0;
+            for (int j = 0; j < 50; j++) {
+                StatistiquesJoueur joueur = stats.getStatistiques("joueur" + j);
+                assertEquals(mains / 50, joueur.getMainsJouees());
+                total += joueur.getMainsJouees();
+            }
+            assertEquals(mains, total);
+        }
+    }
+
+    private static void tronquer(Path fichier, int octets) throws IOException {
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.WRITE)) {
+            canal.truncate(canal.size() - octets);
+        }
+    }
+}